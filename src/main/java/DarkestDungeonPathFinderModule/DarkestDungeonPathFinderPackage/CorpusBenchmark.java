@@ -0,0 +1,361 @@
+
+package DarkestDungeonPathFinderPackage;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+//Solves every dated map in a folder a few times over and writes down how it went, so the next run has something to be compared to
+//Each map gets WARM_UP_RUNS solves that are thrown away while the JIT settles, then MEASURED_RUNS that are kept
+//Wall time is the median and the 95th percentile over the kept runs. CPU time and allocated bytes are medians, and cover every
+//thread in the process, since most of the solving happens on the pool and not on the thread that asked for it
+//
+//The results file is plain text, one map per line, with a header saying what wrote it
+//   # CorpusBenchmark v1 engine=<engine> settings=<settings>
+//   <file name>	<optimum>	<median wall ms>	<p95 wall ms>	<median cpu ms>	<median allocated bytes>
+final class CorpusBenchmark
+{
+
+   private static final String HEADER = "# CorpusBenchmark v1";
+   private static final Pattern DATED_MAP = Pattern.compile("^\\d{8}_.*\\.(png|txt)$");
+   private static final int WARM_UP_RUNS = 2;
+   private static final int MEASURED_RUNS = 7;
+   public static final double DEFAULT_THRESHOLD_PERCENT = 25;
+
+   //Tiny maps solve in a few milliseconds, where a 25% swing is just noise, so anything under this never counts as a regression
+   private static final double MIN_REGRESSION_MILLIS = 20;
+
+   private CorpusBenchmark()
+   {
+   
+      throw new UnsupportedOperationException();
+   
+   }
+
+   private record Result(String map, int optimum, double medianMillis, double p95Millis, double cpuMillis, long allocatedBytes)
+   {
+   
+      //Always Locale.ROOT, since a decimal comma would write a baseline that Double.parseDouble cannot read back
+      String toLine()
+      {
+      
+         return String.join("\t", this.map, "" + this.optimum, String.format(Locale.ROOT, "%.3f", this.medianMillis),
+                              String.format(Locale.ROOT, "%.3f", this.p95Millis), String.format(Locale.ROOT, "%.3f", this.cpuMillis),
+                              "" + this.allocatedBytes);
+      
+      }
+   
+      static Result fromLine(String line)
+      {
+      
+         final String[] parts = line.split("\t");
+      
+         if (parts.length != 6)
+         {
+         
+            throw new IllegalArgumentException("Results line must have 6 columns! line = " + line);
+         
+         }
+      
+         return new Result(parts[0], Integer.parseInt(parts[1]), Double.parseDouble(parts[2]), Double.parseDouble(parts[3]),
+                              Double.parseDouble(parts[4]), Long.parseLong(parts[5]));
+      
+      }
+   
+   }
+
+   //Benchmarks every dated map in folder, writes the results, then checks them against baseline if there is one
+   //Returns false if any map got slower than thresholdPercent allows, or found a different optimum
+   public static boolean run(File folder, File results, File baseline, double thresholdPercent, PathFinder.Engine engine)
+   {
+   
+      Objects.requireNonNull(folder);
+      Objects.requireNonNull(results);
+      Objects.requireNonNull(engine);
+   
+      final File[] maps = folder.listFiles(file -> DATED_MAP.matcher(file.getName()).matches());
+   
+      if (maps == null || maps.length == 0)
+      {
+      
+         throw new IllegalArgumentException("No dated maps to benchmark! folder = " + folder);
+      
+      }
+   
+      Arrays.sort(maps);
+   
+      final String header = HEADER + " engine=" + engine + " settings=" + PathFinder.SearchSettings.defaults();
+   
+      //Read before anything is written, so a results file that is also the baseline still gets compared to the old numbers
+      final Map<String, Result> before =
+         baseline == null
+         ?
+         null
+         :
+         read(baseline, header)
+         ;
+   
+      final List<Result> measured = new ArrayList<>();
+   
+      try (final PathFinder pathFinder = new PathFinder())
+      {
+      
+         for (File map : maps)
+         {
+         
+            final Result result = measure(pathFinder, map, engine);
+         
+            System.out.println(result.toLine());
+         
+            measured.add(result);
+         
+         }
+      
+      }
+   
+      write(results, header, measured);
+   
+      if (baseline == null)
+      {
+      
+         return true;
+      
+      }
+   
+      return compare(before, measured, thresholdPercent);
+   
+   }
+
+   private static Result measure(PathFinder pathFinder, File map, PathFinder.Engine engine)
+   {
+   
+      final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+      final com.sun.management.OperatingSystemMXBean os =
+         (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+   
+      int optimum = -1;
+   
+      for (int i = 0; i < WARM_UP_RUNS; i++)
+      {
+      
+         optimum = pathFinder.cheapestWeightOf(map, engine);
+      
+      }
+   
+      final double[] wallMillis = new double[MEASURED_RUNS];
+      final double[] cpuMillis = new double[MEASURED_RUNS];
+      final long[] allocatedBytes = new long[MEASURED_RUNS];
+   
+      for (int i = 0; i < MEASURED_RUNS; i++)
+      {
+      
+         final long allocatedBefore = allocatedByAllThreads(threads);
+         final long cpuBefore = os.getProcessCpuTime();
+         final long wallBefore = System.nanoTime();
+      
+         final int weight = pathFinder.cheapestWeightOf(map, engine);
+      
+         final long wallAfter = System.nanoTime();
+         final long cpuAfter = os.getProcessCpuTime();
+         final long allocatedAfter = allocatedByAllThreads(threads);
+      
+         if (weight != optimum)
+         {
+         
+            throw new IllegalStateException("Same map gave 2 different optimums! map = " + map.getName() + " weights = " + optimum + ", " + weight);
+         
+         }
+      
+         wallMillis[i] = (wallAfter - wallBefore) / 1_000_000.0;
+         cpuMillis[i] = (cpuAfter - cpuBefore) / 1_000_000.0;
+         allocatedBytes[i] = allocatedAfter - allocatedBefore;
+      
+      }
+   
+      Arrays.sort(wallMillis);
+      Arrays.sort(cpuMillis);
+      Arrays.sort(allocatedBytes);
+   
+      return new Result(map.getName(), optimum, wallMillis[MEASURED_RUNS / 2], percentile(wallMillis, 95), cpuMillis[MEASURED_RUNS / 2],
+                           allocatedBytes[MEASURED_RUNS / 2]);
+   
+   }
+
+   //Nearest rank, over values that are already sorted
+   private static double percentile(double[] sorted, int percent)
+   {
+   
+      final int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+   
+      return sorted[Math.max(0, rank - 1)];
+   
+   }
+
+   //Threads that died since the last look take their counts with them, so this can only ever undercount
+   private static long allocatedByAllThreads(com.sun.management.ThreadMXBean threads)
+   {
+   
+      long total = 0;
+   
+      for (long each : threads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+      {
+      
+         if (each > 0)
+         {
+         
+            total += each;
+         
+         }
+      
+      }
+   
+      return total;
+   
+   }
+
+   private static boolean compare(Map<String, Result> baseline, List<Result> measured, double thresholdPercent)
+   {
+   
+      boolean passed = true;
+   
+      for (Result now : measured)
+      {
+      
+         final Result before = baseline.get(now.map());
+      
+         if (before == null)
+         {
+         
+            System.out.println("NEW " + now.map());
+         
+            continue;
+         
+         }
+      
+         if (before.optimum() != now.optimum())
+         {
+         
+            System.out.println("OPTIMUM CHANGED " + now.map() + " " + before.optimum() + " -> " + now.optimum());
+         
+            passed = false;
+         
+            continue;
+         
+         }
+      
+         final double allowedMillis = Math.max(before.medianMillis() * (1 + thresholdPercent / 100), before.medianMillis() + MIN_REGRESSION_MILLIS);
+      
+         if (now.medianMillis() > allowedMillis)
+         {
+         
+            System.out.println("REGRESSION " + now.map() + " " + "%.3f".formatted(before.medianMillis()) + " ms -> "
+                                 + "%.3f".formatted(now.medianMillis()) + " ms");
+         
+            passed = false;
+         
+         }
+      
+      }
+   
+      System.out.println(passed ? "PASSED against baseline" : "FAILED against baseline");
+   
+      return passed;
+   
+   }
+
+   private static void write(File file, String header, List<Result> results)
+   {
+   
+      final List<String> lines = new ArrayList<>();
+   
+      lines.add(header);
+   
+      for (Result each : results)
+      {
+      
+         lines.add(each.toLine());
+      
+      }
+   
+      try
+      {
+      
+         Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+      
+      }
+   
+      catch (IOException e)
+      {
+      
+         throw new RuntimeException(e);
+      
+      }
+   
+   }
+
+   //Timings only mean something next to timings of the same engine with the same settings, so the header has to match exactly
+   private static Map<String, Result> read(File file, String header)
+   {
+   
+      final List<String> lines;
+   
+      try
+      {
+      
+         lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+      
+      }
+   
+      catch (IOException e)
+      {
+      
+         throw new RuntimeException(e);
+      
+      }
+   
+      if (lines.isEmpty() || !lines.get(0).startsWith(HEADER + " "))
+      {
+      
+         throw new IllegalArgumentException("Not a " + HEADER + " results file! file = " + file);
+      
+      }
+   
+      if (!lines.get(0).equals(header))
+      {
+      
+         throw new IllegalArgumentException("Baseline was made with a different engine or settings! baseline = " + lines.get(0)
+                                             + " now = " + header);
+      
+      }
+   
+      final Map<String, Result> results = new LinkedHashMap<>();
+   
+      for (String line : lines.subList(1, lines.size()))
+      {
+      
+         if (!line.isBlank())
+         {
+         
+            final Result result = Result.fromLine(line);
+         
+            results.put(result.map(), result);
+         
+         }
+      
+      }
+   
+      return results;
+   
+   }
+
+}
@@ -0,0 +1,750 @@
+
+package DarkestDungeonPathFinderPackage;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+//Spreads one search over several JVMs on the same box
+//The coordinator cuts the search tree into prefixes with PathFinder::splitSearch and deals them out to workers over local sockets
+//Workers search below their prefix and report every improvement, which the coordinator broadcasts so every worker prunes with the global best
+//A worker that dies has its prefix handed to someone else, and a worker that is much slower than the rest gets a twin working the same prefix
+//
+//Every message is a single line
+//   coordinator -> worker    MAP <directions>, WORK <id> <bound> <route>, BOUND <bound>, CANCEL <id>, QUIT
+//   worker -> coordinator    BEST <id> <weight> <route>, DONE <id>
+final class DistributedSearch
+{
+
+   private static final int SPLIT_DEPTH = 6;
+   private static final long MIN_STRAGGLER_MILLIS = 2_000;
+   private static final int STRAGGLER_FACTOR = 4;
+
+   private DistributedSearch()
+   {
+   
+      throw new UnsupportedOperationException();
+   
+   }
+
+   //Launches workerCount worker JVMs and coordinates them until the whole search tree is done
+   //With workerCount = 0 it just prints its port and waits for workers started by hand (--worker localhost <port>)
+   public static void coordinate(File file, int workerCount)
+   {
+   
+      Objects.requireNonNull(file);
+   
+      if (workerCount < 0)
+      {
+      
+         throw new IllegalArgumentException("Cannot launch a negative number of workers! workerCount = " + workerCount);
+      
+      }
+   
+      final String directions = PathFinder.directionsOf(file);
+      final String node = PathFinder.startingRoomOf(file);
+   
+      final List<String> prefixes = PathFinder.splitSearch(directions, node, SPLIT_DEPTH);
+   
+      System.out.println(node + " -- " + directions + " -- split into " + prefixes.size() + " prefixes");
+   
+      try (final ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress()))
+      {
+      
+         System.out.println("Coordinator listening on port " + server.getLocalPort());
+      
+         final List<Process> workers = new ArrayList<>();
+      
+         for (int i = 0; i < workerCount; i++)
+         {
+         
+            workers.add(launchWorker(server.getLocalPort()));
+         
+         }
+      
+         final double start = System.currentTimeMillis();
+      
+         final Coordinator coordinator = new Coordinator(directions, node, prefixes, workers);
+      
+         coordinator.run(server);
+      
+         final double finish = System.currentTimeMillis();
+      
+         System.out.println("Finished in " + ((finish - start)/1000) + " seconds");
+      
+         if (coordinator.bestRoute == null)
+         {
+         
+            throw new IllegalStateException("No worker found a route that covers the map! directions = " + directions);
+         
+         }
+      
+         PathFinder.prettyPrintRoute(directions, coordinator.bestRoute);
+      
+         System.out.println("FINAL = " + coordinator.bestWeight);
+      
+         workers.forEach(Process::destroy);
+      
+      }
+   
+      catch (IOException e)
+      {
+      
+         throw new RuntimeException(e);
+      
+      }
+   
+   }
+
+   public static void work(String host, int port)
+   {
+   
+      Objects.requireNonNull(host);
+   
+      try
+         (
+         final Socket socket = new Socket(host, port);
+         final BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+         final PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+         final PathFinder pathFinder = new PathFinder();
+         )
+      {
+      
+         new Worker(pathFinder, in, out).run();
+      
+      }
+   
+      catch (IOException e)
+      {
+      
+         throw new RuntimeException(e);
+      
+      }
+   
+   }
+
+   private static Process launchWorker(int port) throws IOException
+   {
+   
+      final String java = ProcessHandle.current().info().command().orElse("java");
+      final String modulePath = System.getProperty("jdk.module.path");
+   
+      final List<String> command = new ArrayList<>();
+   
+      command.add(java);
+   
+      if (modulePath != null)
+      {
+      
+         command.addAll(List.of("-p", modulePath, "-m", Main.class.getModule().getName() + "/" + Main.class.getName()));
+      
+      }
+   
+      else
+      {
+      
+         command.addAll(List.of("-cp", System.getProperty("java.class.path"), Main.class.getName()));
+      
+      }
+   
+      command.addAll(List.of("--worker", "localhost", String.valueOf(port)));
+   
+      return
+         new ProcessBuilder(command)
+            .inheritIO()
+            .start()
+            ;
+   
+   }
+
+   private static final class Connection
+   {
+   
+      private final Socket socket;
+      private final PrintWriter out;
+   
+      private Connection(Socket socket) throws IOException
+      {
+      
+         this.socket = socket;
+         this.out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+      
+      }
+   
+      private synchronized void send(String message)
+      {
+      
+         this.out.println(message);
+      
+      }
+   
+      private void close()
+      {
+      
+         try
+         {
+         
+            this.socket.close();
+         
+         }
+      
+         catch (IOException e)
+         {
+         
+            //Closing a socket that is already broken, nothing left to do
+         
+         }
+      
+      }
+   
+   }
+
+   //Something that happened on a worker socket. A null line that is not a connection means the worker went away
+   private record Event(Connection from, String line, boolean connected)
+   {
+   
+      private static Event connected(Connection from)
+      {
+      
+         return new Event(from, null, true);
+      
+      }
+   
+      private static Event received(Connection from, String line)
+      {
+      
+         return new Event(from, line, false);
+      
+      }
+   
+      private static Event disconnected(Connection from)
+      {
+      
+         return new Event(from, null, false);
+      
+      }
+   
+   }
+
+   //All of the bookkeeping happens on the thread that calls run, the socket threads only turn lines into Events
+   private static final class Coordinator
+   {
+   
+      private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+      private final String directions;
+      private final List<String> prefixes;
+      private final List<Process> processes;
+      private final Deque<Integer> pending = new ArrayDeque<>();
+      private final Set<Integer> finished = new HashSet<>();
+      private final Map<Integer, Set<Connection>> running = new HashMap<>();
+      private final Map<Integer, Long> startedAt = new HashMap<>();
+      private final Map<Connection, Integer> assignments = new LinkedHashMap<>();
+      private long finishedMillis = 0;
+      private int bestWeight;
+      private String bestRoute;
+   
+      private Coordinator(String directions, String node, List<String> prefixes, List<Process> processes)
+      {
+      
+         this.directions = directions;
+         this.prefixes = List.copyOf(prefixes);
+         this.processes = processes;
+         this.bestRoute = PathFinder.heuristicRouteOf(directions, node);
+         this.bestWeight = PathFinder.weightOfRoute(directions, this.bestRoute);
+      
+         for (int i = 0; i < this.prefixes.size(); i++)
+         {
+         
+            this.pending.add(i);
+         
+         }
+      
+      }
+   
+      private void run(ServerSocket server)
+      {
+      
+         final Thread acceptor = new Thread(() -> this.accept(server), "coordinator-acceptor");
+      
+         acceptor.setDaemon(true);
+         acceptor.start();
+      
+         try
+         {
+         
+            while (this.finished.size() < this.prefixes.size())
+            {
+            
+               final Event event = this.events.poll(250, TimeUnit.MILLISECONDS);
+            
+               if (event != null)
+               {
+               
+                  this.handle(event);
+               
+               }
+            
+               this.checkWorkersAlive();
+               this.schedule();
+            
+            }
+         
+         }
+      
+         catch (InterruptedException e)
+         {
+         
+            Thread.currentThread().interrupt();
+         
+            throw new RuntimeException(e);
+         
+         }
+      
+         finally
+         {
+         
+            for (Connection each : this.assignments.keySet())
+            {
+            
+               each.send("QUIT");
+               each.close();
+            
+            }
+         
+         }
+      
+      }
+   
+      private void accept(ServerSocket server)
+      {
+      
+         while (!server.isClosed())
+         {
+         
+            try
+            {
+            
+               final Connection connection = new Connection(server.accept());
+            
+               this.events.add(Event.connected(connection));
+            
+               final Thread reader = new Thread(() -> this.read(connection), "coordinator-reader");
+            
+               reader.setDaemon(true);
+               reader.start();
+            
+            }
+         
+            catch (IOException e)
+            {
+            
+               return;
+            
+            }
+         
+         }
+      
+      }
+   
+      private void read(Connection connection)
+      {
+      
+         try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.socket.getInputStream(), StandardCharsets.UTF_8)))
+         {
+         
+            String line;
+         
+            while ((line = in.readLine()) != null)
+            {
+            
+               this.events.add(Event.received(connection, line));
+            
+            }
+         
+         }
+      
+         catch (IOException e)
+         {
+         
+            //A broken socket is handled exactly like a closed one
+         
+         }
+      
+         this.events.add(Event.disconnected(connection));
+      
+      }
+   
+      private void handle(Event event)
+      {
+      
+         final Connection from = event.from();
+      
+         if (event.connected())
+         {
+         
+            from.send("MAP " + this.directions);
+            from.send("BOUND " + this.bestWeight);
+         
+            this.assignments.put(from, null);
+         
+            return;
+         
+         }
+      
+         if (event.line() == null)
+         {
+         
+            final Integer lost = this.assignments.remove(from);
+         
+            from.close();
+         
+            if (lost != null)
+            {
+            
+               this.stopRunning(lost, from);
+            
+               if (!this.finished.contains(lost) && this.running.get(lost) == null)
+               {
+               
+                  System.out.println("Worker lost, handing prefix " + lost + " to someone else");
+               
+                  this.pending.addFirst(lost);
+               
+               }
+            
+            }
+         
+            return;
+         
+         }
+      
+         final String[] parts = event.line().split(" ");
+      
+         switch (parts[0])
+         {
+         
+            case "BEST" ->
+               {
+               
+                  final int weight = Integer.parseInt(parts[2]);
+               
+                  if (weight < this.bestWeight)
+                  {
+                  
+                     this.bestWeight = weight;
+                     this.bestRoute = parts[3];
+                  
+                     System.out.println("New best = " + weight + " from prefix " + parts[1]);
+                  
+                     this.assignments.keySet().forEach(each -> each.send("BOUND " + weight));
+                  
+                  }
+               
+               }
+         
+            case "DONE" ->
+               {
+               
+                  final int id = Integer.parseInt(parts[1]);
+               
+                  this.assignments.put(from, null);
+               
+                  if (this.finished.add(id))
+                  {
+                  
+                     this.finishedMillis += System.currentTimeMillis() - this.startedAt.get(id);
+                  
+                     final Set<Connection> twins = this.running.remove(id);
+                  
+                     twins.remove(from);
+                     twins.forEach(each -> each.send("CANCEL " + id));
+                  
+                  }
+               
+                  else
+                  {
+                  
+                     this.stopRunning(id, from);
+                  
+                  }
+               
+               }
+         
+            default -> throw new IllegalStateException("Unknown message from worker! line = " + event.line());
+         
+         }
+      
+      }
+   
+      private void stopRunning(int id, Connection connection)
+      {
+      
+         final Set<Connection> runners = this.running.get(id);
+      
+         if (runners != null)
+         {
+         
+            runners.remove(connection);
+         
+            if (runners.isEmpty())
+            {
+            
+               this.running.remove(id);
+            
+            }
+         
+         }
+      
+      }
+   
+      private void schedule()
+      {
+      
+         for (Map.Entry<Connection, Integer> each : this.assignments.entrySet())
+         {
+         
+            if (each.getValue() != null)
+            {
+            
+               continue;
+            
+            }
+         
+            final Integer next = this.pending.isEmpty() ? this.findStraggler() : this.pending.poll();
+         
+            if (next == null)
+            {
+            
+               return;
+            
+            }
+         
+            each.setValue(next);
+         
+            this.running.computeIfAbsent(next, id -> new HashSet<>()).add(each.getKey());
+            this.startedAt.putIfAbsent(next, System.currentTimeMillis());
+         
+            each.getKey().send("WORK " + next + " " + this.bestWeight + " " + this.prefixes.get(next));
+         
+         }
+      
+      }
+   
+      //The prefix that has been running alone the longest, if it has been running well past what prefixes usually take
+      private Integer findStraggler()
+      {
+      
+         final long averageMillis = this.finished.isEmpty() ? 0 : this.finishedMillis / this.finished.size();
+         final long threshold = Math.max(MIN_STRAGGLER_MILLIS, averageMillis * STRAGGLER_FACTOR);
+         final long now = System.currentTimeMillis();
+      
+         Integer straggler = null;
+      
+         for (Map.Entry<Integer, Set<Connection>> each : this.running.entrySet())
+         {
+         
+            final long started = this.startedAt.get(each.getKey());
+         
+            if (each.getValue().size() == 1
+                  && now - started > threshold
+                  && (straggler == null || started < this.startedAt.get(straggler)))
+            {
+            
+               straggler = each.getKey();
+            
+            }
+         
+         }
+      
+         return straggler;
+      
+      }
+   
+      private void checkWorkersAlive()
+      {
+      
+         if (!this.processes.isEmpty()
+               && this.assignments.isEmpty()
+               && this.events.isEmpty()
+               && this.processes.stream().noneMatch(Process::isAlive))
+         {
+         
+            throw new IllegalStateException("Every worker died before the search finished! finished = "
+                                 + this.finished.size() + " of " + this.prefixes.size());
+         
+         }
+      
+      }
+   
+   }
+
+   //Works one prefix at a time on a background thread, while the calling thread listens for bounds and cancellations
+   private static final class Worker
+   {
+   
+      private final AtomicInteger globalBound = new AtomicInteger(Integer.MAX_VALUE);
+      private final AtomicReference<PathFinder.SubtreeSearch> current = new AtomicReference<>();
+      private final AtomicInteger currentId = new AtomicInteger(-1);
+      private final BlockingQueue<String> work = new LinkedBlockingQueue<>();
+      private final PathFinder pathFinder;
+      private final BufferedReader in;
+      private final PrintWriter out;
+      private String directions;
+   
+      private Worker(PathFinder pathFinder, BufferedReader in, PrintWriter out)
+      {
+      
+         this.pathFinder = pathFinder;
+         this.in = in;
+         this.out = out;
+      
+      }
+   
+      private void run() throws IOException
+      {
+      
+         final Thread searcher = new Thread(this::search, "worker-search");
+      
+         searcher.setDaemon(true);
+         searcher.start();
+      
+         String line;
+      
+         readLoop:
+         while ((line = this.in.readLine()) != null)
+         {
+         
+            final String[] parts = line.split(" ", 2);
+         
+            switch (parts[0])
+            {
+            
+               case "MAP"    -> this.directions = parts[1];
+               case "WORK"   -> this.work.add(parts[1]);
+               case "BOUND"  -> this.tighten(Integer.parseInt(parts[1]));
+               case "CANCEL" -> this.cancel(Integer.parseInt(parts[1]));
+               case "QUIT"   -> { break readLoop; }
+               default       -> throw new IllegalStateException("Unknown message from coordinator! line = " + line);
+            
+            }
+         
+         }
+      
+         searcher.interrupt();
+      
+      }
+   
+      private void tighten(int bound)
+      {
+      
+         this.globalBound.accumulateAndGet(bound, Math::min);
+      
+         final PathFinder.SubtreeSearch search = this.current.get();
+      
+         if (search != null)
+         {
+         
+            search.tighten(bound);
+         
+         }
+      
+      }
+   
+      //Nothing below a cutoff of 0 can be accepted, so the search just unwinds
+      private void cancel(int id)
+      {
+      
+         final PathFinder.SubtreeSearch search = this.current.get();
+      
+         if (search != null && this.currentId.get() == id)
+         {
+         
+            search.tighten(0);
+         
+         }
+      
+      }
+   
+      private void search()
+      {
+      
+         try
+         {
+         
+            while (true)
+            {
+            
+               final String[] parts = this.work.take().split(" ");
+               final int id = Integer.parseInt(parts[0]);
+               final int bound = Math.min(Integer.parseInt(parts[1]), this.globalBound.get());
+            
+               final PathFinder.SubtreeSearch search =
+                  this.pathFinder.new SubtreeSearch
+                  (
+                     this.directions,
+                     parts[2],
+                     bound,
+                     (weight, route) -> this.send("BEST " + id + " " + weight + " " + route)
+                  );
+            
+               this.currentId.set(id);
+               this.current.set(search);
+            
+               //A bound may have come in while the search was being built
+               search.tighten(this.globalBound.get());
+            
+               search.run();
+            
+               this.current.set(null);
+            
+               this.send("DONE " + id);
+            
+            }
+         
+         }
+      
+         catch (InterruptedException e)
+         {
+         
+            Thread.currentThread().interrupt();
+         
+         }
+      
+      }
+   
+      private void send(String message)
+      {
+      
+         synchronized (this.out)
+         {
+         
+            this.out.println(message);
+         
+         }
+      
+      }
+   
+   }
+
+}
@@ -0,0 +1,239 @@
+package DarkestDungeonPathFinderPackage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+//Watches a folder and solves every dated map dropped into it, so saving a screenshot is all it takes to get a route
+//The answer goes next to the map, with the extension swapped for ROUTE_EXTENSION
+//   map <file name>
+//   weight <weight>          or          error <what was wrong with the map>
+//   lowerBound <bound>
+//   gap <weight - bound>
+//   route <rooms>
+//
+//Screenshot tools tend to write a file in several goes, and people drop several at once, so nothing is solved until the folder
+//has been quiet for DEBOUNCE_MILLIS, and then everything that changed is solved together, oldest name first
+//A map whose route file is newer than it is already solved and gets skipped, which also covers the maps solved by an earlier run
+final class FolderWatcher
+{
+
+   private static final Pattern DATED_MAP = Pattern.compile("^\\d{8}_.*\\.(png|txt)$");
+   private static final String ROUTE_EXTENSION = ".route";
+   private static final long DEBOUNCE_MILLIS = 750;
+   private static final long SOLVE_MILLIS = 5_000;
+
+   private FolderWatcher()
+   {
+   
+      throw new UnsupportedOperationException();
+   
+   }
+
+   //Blocks until the thread is interrupted or the folder goes away
+   public static void watch(File folder)
+   {
+   
+      Objects.requireNonNull(folder);
+   
+      if (!folder.isDirectory())
+      {
+      
+         throw new IllegalArgumentException("Can only watch a folder! folder = " + folder);
+      
+      }
+   
+      try (final PathFinder pathFinder = new PathFinder(); final WatchService watcher = FileSystems.getDefault().newWatchService())
+      {
+      
+         folder.toPath().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+      
+         System.out.println("Watching " + folder.getAbsolutePath());
+      
+         //Whatever was dropped in while nobody was watching
+         solveAll(pathFinder, Arrays.asList(Objects.requireNonNull(folder.listFiles())));
+      
+         while (true)
+         {
+         
+            final Set<File> batch = new TreeSet<>();
+         
+            WatchKey key = watcher.take();
+         
+            while (key != null)
+            {
+            
+               for (WatchEvent<?> event : key.pollEvents())
+               {
+               
+                  //Too much happened at once and some events were lost, so look at everything
+                  if (event.kind() == StandardWatchEventKinds.OVERFLOW)
+                  {
+                  
+                     batch.addAll(Arrays.asList(Objects.requireNonNull(folder.listFiles())));
+                  
+                  }
+               
+                  else
+                  {
+                  
+                     batch.add(folder.toPath().resolve((Path) event.context()).toFile());
+                  
+                  }
+               
+               }
+            
+               if (!key.reset())
+               {
+               
+                  System.out.println("Stopped watching " + folder.getAbsolutePath() + ", it is gone");
+               
+                  return;
+               
+               }
+            
+               key = watcher.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+            
+            }
+         
+            solveAll(pathFinder, batch);
+         
+         }
+      
+      }
+   
+      catch (IOException e)
+      {
+      
+         throw new UncheckedIOException(e);
+      
+      }
+   
+      catch (InterruptedException e)
+      {
+      
+         Thread.currentThread().interrupt();
+      
+      }
+   
+   }
+
+   private static void solveAll(PathFinder pathFinder, Collection<File> files)
+   {
+   
+      for (File file : new TreeSet<>(files))
+      {
+      
+         if (file.isFile() && DATED_MAP.matcher(file.getName()).matches() && !isSolved(file))
+         {
+         
+            solve(pathFinder, file);
+         
+         }
+      
+      }
+   
+   }
+
+   private static File routeFileOf(File map)
+   {
+   
+      final String name = map.getName();
+   
+      return new File(map.getParentFile(), name.substring(0, name.lastIndexOf('.')) + ROUTE_EXTENSION);
+   
+   }
+
+   private static boolean isSolved(File map)
+   {
+   
+      final File route = routeFileOf(map);
+   
+      return route.isFile() && route.lastModified() >= map.lastModified();
+   
+   }
+
+   //A map that cannot be solved still gets a route file saying why, so it is not tried again until it changes
+   //Any RuntimeException counts, since 1 badly named or broken file should never take the whole daemon down with it
+   private static void solve(PathFinder pathFinder, File map)
+   {
+   
+      final long start = System.nanoTime();
+   
+      String answer;
+   
+      try
+      {
+      
+         answer = pathFinder.solutionOf(map, SOLVE_MILLIS);
+      
+      }
+   
+      catch (RuntimeException e)
+      {
+      
+         answer = "error " + e.getMessage() + "\n";
+      
+      }
+   
+      write(routeFileOf(map), "map " + map.getName() + "\n" + answer);
+   
+      System.out.println("Solved " + map.getName() + " in " + "%.3f".formatted((System.nanoTime() - start) / 1_000_000_000.0) + " seconds -- "
+                           + answer.lines().findFirst().orElse(""));
+   
+   }
+
+   //Written next to the real file first and then moved over it, so nobody ever reads half a route
+   private static void write(File file, String text)
+   {
+   
+      final Path temporary = file.toPath().resolveSibling(file.getName() + ".tmp");
+   
+      try
+      {
+      
+         Files.writeString(temporary, text, StandardCharsets.UTF_8);
+      
+         try
+         {
+         
+            Files.move(temporary, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+         
+         }
+      
+         catch (AtomicMoveNotSupportedException e)
+         {
+         
+            Files.move(temporary, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+         
+         }
+      
+      }
+   
+      catch (IOException e)
+      {
+      
+         throw new UncheckedIOException(e);
+      
+      }
+   
+   }
+
+}
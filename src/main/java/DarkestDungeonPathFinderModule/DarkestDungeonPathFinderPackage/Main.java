@@ -1,14 +1,173 @@
 
 package DarkestDungeonPathFinderPackage;
 
+import java.io.File;
+import java.util.List;
+
 public class Main
 {
 
    public static void main(String[] args)
    {
    
-      new PathFinder().kickOffFileChooser();
-      //new PathFinder().kickOffAll();
+      if (args.length == 3 && args[0].equals("--worker"))
+      {
+      
+         DistributedSearch.work(args[1], Integer.parseInt(args[2]));
+      
+         return;
+      
+      }
+   
+      if (args.length == 3 && args[0].equals("--coordinator"))
+      {
+      
+         DistributedSearch.coordinate(new File(args[1]), Integer.parseInt(args[2]));
+      
+         return;
+      
+      }
+   
+      //--serve <port> [<concurrent solves> [<cache size>]]
+      if (args.length >= 2 && args.length <= 4 && args[0].equals("--serve"))
+      {
+      
+         SolveService
+            .serve
+            (
+               Integer.parseInt(args[1]),
+               args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors(),
+               args.length > 3 ? Integer.parseInt(args[3]) : SolveService.DEFAULT_CACHE_SIZE
+            );
+      
+         return;
+      
+      }
+   
+      //--watch <folder>
+      if (args.length == 2 && args[0].equals("--watch"))
+      {
+      
+         FolderWatcher.watch(new File(args[1]));
+      
+         return;
+      
+      }
+   
+      //--scaling <folder> [CHAIN|SEARCH_STATE|BEST_FIRST|MEET_IN_THE_MIDDLE [<map name prefix>...]]
+      if (args.length >= 2 && args[0].equals("--scaling"))
+      {
+      
+         ScalingBenchmark
+            .run
+            (
+               new File(args[1]),
+               args.length > 3 ? List.of(args).subList(3, args.length) : List.of(),
+               args.length > 2 ? PathFinder.Engine.valueOf(args[2]) : PathFinder.Engine.CHAIN
+            );
+      
+         return;
+      
+      }
+   
+      //--benchmark <folder> <results file> [<baseline file> [<threshold percent> [CHAIN|SEARCH_STATE|BEST_FIRST|MEET_IN_THE_MIDDLE]]]
+      if (args.length >= 3 && args.length <= 6 && args[0].equals("--benchmark"))
+      {
+      
+         final boolean passed =
+            CorpusBenchmark
+               .run
+               (
+                  new File(args[1]),
+                  new File(args[2]),
+                  args.length > 3 ? new File(args[3]) : null,
+                  args.length > 4 ? Double.parseDouble(args[4]) : CorpusBenchmark.DEFAULT_THRESHOLD_PERCENT,
+                  args.length > 5 ? PathFinder.Engine.valueOf(args[5]) : PathFinder.Engine.CHAIN
+               );
+      
+         if (!passed)
+         {
+         
+            System.exit(1);
+         
+         }
+      
+         return;
+      
+      }
+   
+      if (args.length == 3 && args[0].equals("--checkpoint"))
+      {
+      
+         try (final PathFinder pathFinder = new PathFinder())
+         {
+         
+            pathFinder.solveWithCheckpoints(new File(args[1]), new File(args[2]));
+         
+         }
+      
+         return;
+      
+      }
+   
+      if (args.length == 2 && args[0].equals("--resume"))
+      {
+      
+         try (final PathFinder pathFinder = new PathFinder())
+         {
+         
+            pathFinder.resumeFromCheckpoint(new File(args[1]));
+         
+         }
+      
+         return;
+      
+      }
+   
+      //--trace <map> <trace file>
+      if (args.length == 3 && args[0].equals("--trace"))
+      {
+      
+         try (final PathFinder pathFinder = new PathFinder())
+         {
+         
+            pathFinder.solveWithTrace(new File(args[1]), new File(args[2]));
+         
+         }
+      
+         return;
+      
+      }
+   
+      //--trace-report <trace file> [<depth>]
+      if (args.length >= 2 && args.length <= 3 && args[0].equals("--trace-report"))
+      {
+      
+         SearchTrace.report(new File(args[1]), args.length > 2 ? Integer.parseInt(args[2]) : SearchTrace.DEFAULT_REPORT_DEPTH, System.out);
+      
+         return;
+      
+      }
+   
+      try (final PathFinder pathFinder = new PathFinder())
+      {
+      
+         pathFinder.kickOffFileChooser();
+         //pathFinder.kickOffAll();
+         //pathFinder.kickOffFileChooserTopK(5);
+         //pathFinder.kickOffFileChooserOptimalRoutes(3);
+         //pathFinder.kickOffFileChooserRoomCoverage();
+         //pathFinder.kickOffFileChooserTolerance(3);
+         //pathFinder.kickOffFileChooserPareto(6);
+         //pathFinder.kickOffFileChooserPartialCoverage(PathFinder.Coverage.ROOMS, 0.75);
+         //pathFinder.kickOffFileChooserRequiredCoverage("ab_cd");
+         //pathFinder.kickOffFileChooserIncremental();
+         //pathFinder.kickOffFileChooserSearchState();
+         //pathFinder.kickOffFileChooserBestFirst(256);
+         //pathFinder.kickOffFileChooserLargeNeighbourhood(10);
+         //pathFinder.kickOffFileChooserMeetInTheMiddle();
+      
+      }
    
    }
    
@@ -3,35 +3,100 @@ package DarkestDungeonPathFinderPackage;
    
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Random;
 import java.util.Set;
-import java.util.function.Function;
+import java.util.StringJoiner;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
-public class PathFinder
+public class PathFinder implements AutoCloseable
 {
 
-   private final ExecutorService PARALLEL = Executors.newWorkStealingPool();
+   private final SearchSettings settings;
+   private final ExecutorService PARALLEL;
+   private final LongAdder spawnedTasks = new LongAdder();
+   private final SearchProgress progress = new SearchProgress();
+   //Only set while solveWithTrace is running, startRecursion records nothing otherwise
+   private volatile SearchTrace trace;
 
+   public PathFinder()
+   {
+   
+      this(SearchSettings.defaults());
+   
+   }
+
+   public PathFinder(SearchSettings settings)
+   {
+   
+      Objects.requireNonNull(settings);
+   
+      this.settings = settings;
+      this.PARALLEL = settings.openPool();
+   
+   }
+
+   @Override
+   public void close()
+   {
+   
+      this.settings.closePool(this.PARALLEL);
+   
+   }
+
+   //Every id is interned, so 2 Nodes for the same room always share 1 String and equals never has to look at its characters
+   //String::intern only holds onto ids weakly, so a long running --serve or --watch does not keep every id it ever saw
    private record Node(String id)
    {
    
@@ -39,6 +104,23 @@ public class PathFinder
       {
       
          Objects.requireNonNull(id);
+         id = id.intern();
+      
+      }
+   
+      @Override
+      public boolean equals(Object other)
+      {
+      
+         return other instanceof Node node && this.id == node.id;
+      
+      }
+   
+      @Override
+      public int hashCode()
+      {
+      
+         return this.id.hashCode();
       
       }
    
@@ -56,7 +138,10 @@ public class PathFinder
    private record Path(Node start, Node end, int weight)
    {
    
-      private static final Pattern REGEX = Pattern.compile("^([a-zA-Z](?:,|)[a-zA-Z](?:,|)[0-9]+|)$");
+      //Either 2 single letter rooms written back to back like ab5, or any 2 room ids written with commas like hall12,crypt3,5
+      //Ids cannot hold commas, underscores or whitespace, since those already split up Paths and maps
+      private static final Pattern LETTERS = Pattern.compile("^([a-zA-Z]),?([a-zA-Z]),?([0-9]+)$");
+      private static final Pattern IDS = Pattern.compile("^([^,_\\s]+),([^,_\\s]+),([0-9]+)$");
    
       Path
       {
@@ -71,35 +156,39 @@ public class PathFinder
       
          Objects.requireNonNull(potentialPath);
       
-         if (!isValidPath(potentialPath))
+         Matcher matcher = LETTERS.matcher(potentialPath);
+      
+         if (!matcher.matches())
          {
          
-            throw new IllegalArgumentException("Invalid path! potentialPath = " + potentialPath);
+            matcher = IDS.matcher(potentialPath);
          
          }
       
-         final String[] array =
-            potentialPath
-               .split(
-                     potentialPath.contains(",")
-                     ?
-                     ","
-                     :
-                     ""
-                     );
+         if (!matcher.matches())
+         {
+         
+            throw new IllegalArgumentException("Invalid path! potentialPath = " + potentialPath);
+         
+         }
       
-         final Node start = new Node(array[0]);
-         final Node end   = new Node(array[1]);
-         final int length = Integer.parseInt(array[2]);
+         final Node start = new Node(matcher.group(1));
+         final Node end   = new Node(matcher.group(2));
+         final int length = Integer.parseInt(matcher.group(3));
       
          return new Path(start, end, length);
       
       }
    
+      //Blank lines are not Paths, so GameMap(String) just skips them along with anything else that does not match
       public static boolean isValidPath(String potentialPath)
       {
       
-         return REGEX.matcher(potentialPath).matches();
+         return
+            LETTERS.matcher(potentialPath).matches()
+            ||
+            IDS.matcher(potentialPath).matches()
+            ;
       
       }
    
@@ -189,6 +278,15 @@ public class PathFinder
       
       }
    
+      //equals does not care which way round the Path is written, so neither can this
+      @Override
+      public int hashCode()
+      {
+      
+         return this.start.hashCode() + this.end.hashCode();
+      
+      }
+   
       public boolean exactMatch(Object other)
       {
       
@@ -210,10 +308,114 @@ public class PathFinder
       
       }
    
+      //How long toString is, and the char at index in it, worked out without building it
+      private int writtenLength()
+      {
+      
+         final int ids = this.start.id().length() + this.end.id().length();
+      
+         return (this.isWrittenShort() ? ids : ids + 2) + Path.digitsOf(this.weight);
+      
+      }
+   
+      private char writtenCharAt(int index)
+      {
+      
+         final String start = this.start.id();
+         final String end = this.end.id();
+         final int separator = this.isWrittenShort() ? 0 : 1;
+      
+         if (index < start.length())
+         {
+         
+            return start.charAt(index);
+         
+         }
+      
+         index -= start.length();
+      
+         if (index < separator)
+         {
+         
+            return ',';
+         
+         }
+      
+         index -= separator;
+      
+         if (index < end.length())
+         {
+         
+            return end.charAt(index);
+         
+         }
+      
+         index -= end.length();
+      
+         if (index < separator)
+         {
+         
+            return ',';
+         
+         }
+      
+         index -= separator;
+      
+         if (this.weight < 0 && index == 0)
+         {
+         
+            return '-';
+         
+         }
+      
+         //Digits are counted from the right, so it only has to divide the weight down to the 1 it wants
+         long digits = Math.abs((long) this.weight);
+      
+         for (int i = Path.digitsOf(this.weight) - 1; i > index; i--)
+         {
+         
+            digits /= 10;
+         
+         }
+      
+         return (char) ('0' + digits % 10);
+      
+      }
+   
+      private boolean isWrittenShort()
+      {
+      
+         return this.start.id().length() == 1 && this.end.id().length() == 1;
+      
+      }
+   
+      //Same as Integer.toString(weight).length()
+      private static int digitsOf(int weight)
+      {
+      
+         int digits = weight < 0 ? 2 : 1;
+      
+         for (long rest = Math.abs((long) weight) / 10; rest > 0; rest /= 10)
+         {
+         
+            digits++;
+         
+         }
+      
+         return digits;
+      
+      }
+   
       public String toString()
       {
       
-         return "" + this.start + this.end + this.weight;
+         return
+            this.isWrittenShort()
+            ?
+            "" + this.start + this.end + this.weight
+            :
+            this.start + "," + this.end + "," + this.weight
+            ;
       
       }
    
@@ -222,12 +424,14 @@ public class PathFinder
    private record Chain(List<Path> chain) implements Comparable<Chain>
    {
    
+      private static final int MAX_TRAVERSALS = 2;
+   
+      //Lightest first, and between 2 Chains of the same weight, the one whose toString comes last, same as it always was
+      //compareAsWritten gets that answer a char at a time straight off each Path, so sorting never builds a String
       public static final Comparator<Chain> comparator =
          Comparator
-            .comparing(Chain::weight)
-            .reversed()
-            .thenComparing(Chain::toString)
-            .reversed()
+            .comparingInt(Chain::weight)
+            .thenComparing((first, second) -> compareAsWritten(second, first))
             ;
    
       Chain
@@ -270,14 +474,99 @@ public class PathFinder
       }
    
       public int weight()
+      {
+      
+         int weight = 0;
+      
+         for (Path each : this.chain)
+         {
+         
+            weight += each.weight();
+         
+         }
+      
+         return weight;
+      
+      }
+   
+      //Same sign as first.toString().compareTo(second.toString()). Both Strings list the Paths split by ", " and end in "]", so
+      //the first Path that is written differently decides it. When 1 is written as the start of the other, the shorter one is
+      //followed by ',' or ']' where the longer one carries on. Each Path is read a char at a time, so nothing gets built
+      private static int compareAsWritten(Chain first, Chain second)
+      {
+      
+         final int size = Math.min(first.chain.size(), second.chain.size());
+      
+         for (int i = 0; i < size; i++)
+         {
+         
+            final Path firstPath  = first.chain.get(i);
+            final Path secondPath = second.chain.get(i);
+         
+            final int firstLength  = firstPath.writtenLength();
+            final int secondLength = secondPath.writtenLength();
+            final int length = Math.min(firstLength, secondLength);
+         
+            for (int j = 0; j < length; j++)
+            {
+            
+               final char firstChar  = firstPath.writtenCharAt(j);
+               final char secondChar = secondPath.writtenCharAt(j);
+            
+               if (firstChar != secondChar)
+               {
+               
+                  return Character.compare(firstChar, secondChar);
+               
+               }
+            
+            }
+         
+            if (firstLength != secondLength)
+            {
+            
+               return
+                  firstLength < secondLength
+                  ?
+                  Character.compare(first.charAfter(i), secondPath.writtenCharAt(length))
+                  :
+                  Character.compare(firstPath.writtenCharAt(length), second.charAfter(i))
+                  ;
+            
+            }
+         
+         }
+      
+         //Every Path they share is written the same, so the shorter Chain hits its ']' first. If it has no Paths at all, that
+         //']' lines up with the first char of the longer Chain's first Path, otherwise with the ',' before its next one
+         if (first.chain.size() == second.chain.size())
+         {
+         
+            return 0;
+         
+         }
+      
+         return
+            first.chain.size() < second.chain.size()
+            ?
+            Character.compare(']', size == 0 ? second.chain.get(0).writtenCharAt(0) : ',')
+            :
+            Character.compare(size == 0 ? first.chain.get(0).writtenCharAt(0) : ',', ']')
+            ;
+      
+      }
+   
+      //What toString writes straight after the Path at index
+      private char charAfter(int index)
       {
       
          return
-            this.chain
-               .stream()
-               .mapToInt(Path::weight)
-               .sum()
-               ;
+            index == this.chain.size() - 1
+            ?
+            ']'
+            :
+            ','
+            ;
       
       }
    
@@ -420,41 +709,73 @@ public class PathFinder
       
       }
    
-      public boolean shouldAddMore()
+      //Every step before the last one was checked back when it was the last one, so only the last one needs checking now
+      //No Path ever needs walking more than twice, because 2 extra walks of the same Path can always be dropped from a route
+      public boolean walksLastPathTooOften()
       {
       
          if (this.chain.isEmpty())
+         {
+         
+            return false;
+         
+         }
+      
+         final Path last = this.chain.get(this.chain.size() - 1);
+      
+         int count = 0;
+      
+         for (Path each : this.chain)
+         {
+         
+            if (each.equals(last))
+            {
+            
+               count++;
+            
+            }
+         
+         }
+      
+         return count > MAX_TRAVERSALS;
+      
+      }
+   
+      //Also true when the last step came back to a room the Chain was already in since it last walked a new Path
+      //Everything walked in between covered nothing new, so the same Chain without that loop is lighter and just as good
+      //Walking back and forth along a Path that was already covered is the smallest loop like that
+      public boolean isDominated()
+      {
+      
+         if (this.walksLastPathTooOften())
          {
          
             return true;
          
          }
       
-         Map<Path, Long> wat =
-            this.chain
-               .stream()
-               .collect(
-                       Collectors.groupingBy(
-                                         Function.identity(),
-                                         Collectors.counting()
-                                         )
-                       );
-      
-         long maxPathFrequency =
-            wat
-               .entrySet()
-               .stream()
-               .max(
-                   Comparator.comparing(
-                                     Map.Entry::getValue
-                                     )
-                   )
-               .orElseThrow()
-               .getValue()
-               ;
+         final Node room = this.isEmpty() ? null : this.lastNode();
       
+         for (int i = this.chain.size() - 1; i > 0; i--)
+         {
+         
+            if (this.chain.indexOf(this.chain.get(i)) == i)
+            {
+            
+               return false;
+            
+            }
+         
+            if (this.chain.get(i - 1).end().equals(room))
+            {
+            
+               return true;
+            
+            }
+         
+         }
       
-         return maxPathFrequency < 3;
+         return false;
       
       }
    
@@ -481,55 +802,177 @@ public class PathFinder
       
       }
    
-      public Node lastNode()
+      //How many steps walked into a room that had already been visited. The starting room counts as visited from the start
+      public int countOfReentries(Node start)
       {
       
-         return this.chain().get(this.chain.size() - 1).end();
-      
-      }
-   
-   }
-
-   private record UncheckedChain(List<Path> chain)
-   {
-   
-      public int weight()
-      {
+         Objects.requireNonNull(start);
       
-         return
-            this.chain
-               .stream()
-               .mapToInt(Path::weight)
-               .sum()
-               ;
+         final Set<Node> visited = new HashSet<>();
       
-      }
-   
-   }
-
-   private record GameMap(List<Path> gameMap)
-   {
-   
-      GameMap
-      {
+         visited.add(start);
       
-         Objects.requireNonNull(gameMap);
-         gameMap = sanitize(gameMap);
+         int count = 0;
       
-      }
-   
-      public GameMap(Path... gameMap)
-      {
+         for (Path each : this.chain)
+         {
+         
+            if (!visited.add(each.end()))
+            {
+            
+               count++;
+            
+            }
+         
+         }
       
-         this(List.of(gameMap));
+         return count;
       
       }
    
-      public GameMap(String listOfPaths)
+      //The most times any single corridor was walked, in either direction
+      public int maxRepeatsOfAnyPath()
       {
       
-         // this
-      //       (
+         int max = 0;
+      
+         for (int i = 0; i < this.chain.size(); i++)
+         {
+         
+            int count = 0;
+         
+            for (Path each : this.chain)
+            {
+            
+               if (each.equals(this.chain.get(i)))
+               {
+               
+                  count++;
+               
+               }
+            
+            }
+         
+            max = Math.max(max, count);
+         
+         }
+      
+         return max;
+      
+      }
+   
+      public Node lastNode()
+      {
+      
+         return this.chain().get(this.chain.size() - 1).end();
+      
+      }
+   
+      //Writes the Chain as the rooms it visits, comma separated, so it can travel outside of this class
+      public String toRooms(Node start)
+      {
+      
+         final StringJoiner rooms = new StringJoiner(",");
+      
+         rooms.add(start.id());
+      
+         for (Path each : this.chain)
+         {
+         
+            rooms.add(each.end().id());
+         
+         }
+      
+         return rooms.toString();
+      
+      }
+   
+      //Reverses toRooms, looking up each step on the gameMap to get its weight back
+      public static Chain fromRooms(GameMap gameMap, String rooms)
+      {
+      
+         Objects.requireNonNull(gameMap);
+         Objects.requireNonNull(rooms);
+      
+         final String[] ids = rooms.split(",");
+      
+         Chain chain = Chain.empty();
+      
+         for (int i = 1; i < ids.length; i++)
+         {
+         
+            final Node next = new Node(ids[i]);
+         
+            final Path step =
+               gameMap
+                  .findPathsFromNode(new Node(ids[i - 1]))
+                  .stream()
+                  .filter(each -> each.endsWith(next))
+                  .findFirst()
+                  .orElseThrow(() -> new IllegalArgumentException("Rooms are not connected on the map! rooms = " + rooms))
+                  ;
+         
+            chain = chain.add(step);
+         
+         }
+      
+         return chain;
+      
+      }
+   
+   }
+
+   private record UncheckedChain(List<Path> chain)
+   {
+   
+      public int weight()
+      {
+      
+         return
+            this.chain
+               .stream()
+               .mapToInt(Path::weight)
+               .sum()
+               ;
+      
+      }
+   
+   }
+
+   //pathsFrom lists the Paths leaving each room, flipped so they all start there
+   //It gets built once per map here, rather than every time the move ordering wants to walk the map
+   private record GameMap(List<Path> gameMap, Map<Node, List<Path>> pathsFrom)
+   {
+   
+      GameMap
+      {
+      
+         Objects.requireNonNull(gameMap);
+         Objects.requireNonNull(pathsFrom);
+         gameMap = sanitize(gameMap);
+         pathsFrom = Map.copyOf(pathsFrom);
+      
+      }
+   
+      public GameMap(List<Path> gameMap)
+      {
+      
+         this(gameMap, GameMap.adjacencyOf(gameMap));
+      
+      }
+   
+      public GameMap(Path... gameMap)
+      {
+      
+         this(List.of(gameMap));
+      
+      }
+   
+      public GameMap(String listOfPaths)
+      {
+      
+         // this
+      //       (
       //          Stream
       //             .of(listOfPaths.split("_"))
       //
@@ -753,6 +1196,27 @@ public class PathFinder
       
       }
    
+      private static Map<Node, List<Path>> adjacencyOf(List<Path> gameMap)
+      {
+      
+         Objects.requireNonNull(gameMap);
+      
+         final Map<Node, List<Path>> pathsFrom = new HashMap<>();
+      
+         for (Path each : gameMap)
+         {
+         
+            pathsFrom.computeIfAbsent(each.start(), room -> new ArrayList<>()).add(each);
+            pathsFrom.computeIfAbsent(each.end(), room -> new ArrayList<>()).add(each.flip());
+         
+         }
+      
+         pathsFrom.replaceAll((room, paths) -> List.copyOf(paths));
+      
+         return pathsFrom;
+      
+      }
+   
       private static boolean pathContainedWithinMap(List<Path> originalList, Path path)
       {
       
@@ -779,6 +1243,8 @@ public class PathFinder
       
       }
    
+      //How many Paths it takes, heading out along path, to reach a Path the chain has not walked yet, or 0 if it walked them all
+      //Breadth first over the walked Paths, so it is the fewest Paths there are and it never looks at a Path more than twice
       private int distanceFromNodeViaPathToClosestPathNotOnChain(Chain chain, Path path, Node node)
       {
       
@@ -789,50 +1255,45 @@ public class PathFinder
          
          }
       
-         final Set<Chain> searchChains = this.findFirstUntraveledPath(chain, path, Chain.empty(), new HashSet<>());
-      
-         final int min =
-            searchChains
-               .stream()
-               .min(Comparator.comparingInt(Chain::weight))
-               .orElse(Chain.empty())
-               .size()
-               ;
-      
-         return min;
-      
-      }
-   
-      private Set<Chain> findFirstUntraveledPath(Chain chain, Path path, Chain searchChain, Set<Chain> searchChains)
-      {
-      
-         final Node node = path.end();
+         final Set<Path> walked = new HashSet<>(chain.chain());
       
-         final List<Path> paths = this.findPathsFromNode(node);
+         final Set<Node> reached = new HashSet<>(List.of(path.end()));
+         List<Node> layer = List.of(path.end());
       
-         for (Path eachPath : paths)
+         for (int steps = 1; !layer.isEmpty(); steps++)
          {
          
-            final Chain nextLink = Chain.of(searchChain, eachPath);
+            final List<Node> nextLayer = new ArrayList<>();
          
-            if (!searchChain.contains(eachPath) && !chain.contains(eachPath))
-            {
-            
-               searchChains.add(nextLink);
-               return searchChains;
-            
-            }
-            
-            else if (!searchChain.contains(eachPath))
+            for (Node room : layer)
             {
             
-               searchChains.addAll(this.findFirstUntraveledPath(chain, eachPath, nextLink, searchChains));
+               for (Path each : this.pathsFrom.getOrDefault(room, List.of()))
+               {
+               
+                  if (!walked.contains(each))
+                  {
+                  
+                     return steps;
+                  
+                  }
+               
+                  if (reached.add(each.end()))
+                  {
+                  
+                     nextLayer.add(each.end());
+                  
+                  }
+               
+               }
             
             }
          
+            layer = nextLayer;
+         
          }
       
-         return searchChains;
+         return 0;
       
       }
    
@@ -847,6 +1308,53 @@ public class PathFinder
       
       }
    
+      private int amountOfUnvisitedNodesLeft(Chain chain, Node start)
+      {
+      
+         final Set<Node> unvisited = new HashSet<>();
+      
+         for (Path each : this.gameMap)
+         {
+         
+            unvisited.add(each.start());
+            unvisited.add(each.end());
+         
+         }
+      
+         unvisited.remove(start);
+      
+         for (Path each : chain.chain())
+         {
+         
+            unvisited.remove(each.end());
+         
+         }
+      
+         return unvisited.size();
+      
+      }
+   
+      private int amountOfUntraveledPathsLeft(Chain chain)
+      {
+      
+         int count = 0;
+      
+         for (Path each : this.gameMap)
+         {
+         
+            if (!chain.contains(each))
+            {
+            
+               count++;
+            
+            }
+         
+         }
+      
+         return count;
+      
+      }
+   
       public String toString()
       {
       
@@ -861,391 +1369,7821 @@ public class PathFinder
    
    }
 
-   private record PathFinderInputs(String directions, String node)
+   //Gives every room on a GameMap a dense int id, and works out the shortest distance between every pair of rooms
+   //Built once per solve, so the engines that need distances never have to look at Strings while they run
+   private static final class MapIndex
    {
    
-      PathFinderInputs
-      {
-      
-         Objects.requireNonNull(directions);
-         Objects.requireNonNull(node);
-      
-      }
+      private static final int UNREACHABLE = Integer.MAX_VALUE / 2;
+      private static final int MAX_ROOMS_FOR_PAIRING = 20;
    
-      private PathFinderInputs(String input)
+      private final List<Node> nodes;
+      private final Map<Node, Integer> ids;
+      private final Path[][] directPaths;
+      private final int[][] directPathIds;
+      private final int[][] distances;
+      private final int[][] nextHops;
+      private final List<Path> paths;
+      private final int[] pathStarts;
+      private final int[] pathEnds;
+      private final int[][] incidentPaths;
+   
+      private MapIndex(GameMap gameMap)
       {
       
-         this
-               (
-               input
-                  .substring(input.indexOf('_') + 4, input.lastIndexOf('_'))
-                  ,
-               input
-                  .substring(input.lastIndexOf('_') + 1, input.lastIndexOf('.'))
-               );
+         this(gameMap, null, null);
       
       }
    
-      public PathFinderInputs(File file)
+      //Reuses distances and nextHops somebody already worked out for this exact GameMap, rooms numbered in the order they first show up
+      private MapIndex(GameMap gameMap, int[][] knownDistances, int[][] knownNextHops)
       {
       
-         this(PathFinder.validateFileName(file).getName());
+         Objects.requireNonNull(gameMap);
       
-      }
-   
-      public GameMap generateGameMap()
-      {
+         final List<Node> nodes = new ArrayList<>();
+         final Map<Node, Integer> ids = new HashMap<>();
       
-         final String[] splitDirections = this.directions.split("_");
-         final String directionsWithNewLines = String.join("\n", splitDirections);
+         for (Path each : gameMap.gameMap())
+         {
+         
+            for (Node node : List.of(each.start(), each.end()))
+            {
+            
+               if (!ids.containsKey(node))
+               {
+               
+                  ids.put(node, nodes.size());
+                  nodes.add(node);
+               
+               }
+            
+            }
+         
+         }
       
-         return new GameMap(directionsWithNewLines);
+         final int size = nodes.size();
       
-      }
-   
-      public int length()
-      {
+         this.nodes = List.copyOf(nodes);
+         this.ids = Map.copyOf(ids);
+         this.directPaths = new Path[size][size];
+         this.directPathIds = new int[size][size];
+         this.distances = knownDistances == null ? new int[size][size] : knownDistances;
+         this.nextHops = knownNextHops == null ? new int[size][size] : knownNextHops;
+         this.paths = gameMap.gameMap();
+         this.pathStarts = new int[this.paths.size()];
+         this.pathEnds = new int[this.paths.size()];
+         this.incidentPaths = new int[size][];
       
-         return directions.length();
+         final int[] incidentCounts = new int[size];
       
-      }
-   
-   }
-
-   public void kickOffFileChooser()
-   {
-   
-      final JFileChooser fileChooser = new JFileChooser("./");
+         for (int each = 0; each < this.paths.size(); each++)
+         {
+         
+            this.pathStarts[each] = ids.get(this.paths.get(each).start());
+            this.pathEnds[each] = ids.get(this.paths.get(each).end());
+         
+            incidentCounts[this.pathStarts[each]]++;
+            incidentCounts[this.pathEnds[each]]++;
+         
+         }
       
-      fileChooser.showOpenDialog(null);
+         for (int room = 0; room < size; room++)
+         {
+         
+            this.incidentPaths[room] = new int[incidentCounts[room]];
+            incidentCounts[room] = 0;
+         
+         }
       
-      final File fileToRun = fileChooser.getSelectedFile();
+         for (int each = 0; each < this.paths.size(); each++)
+         {
+         
+            this.incidentPaths[this.pathStarts[each]][incidentCounts[this.pathStarts[each]]++] = each;
+            this.incidentPaths[this.pathEnds[each]][incidentCounts[this.pathEnds[each]]++] = each;
+         
+         }
       
-      if (fileToRun != null)
-      {
+         for (int each = 0; each < this.paths.size(); each++)
+         {
+         
+            final Path path = this.paths.get(each);
+            final int start = this.pathStarts[each];
+            final int end = this.pathEnds[each];
+         
+            if (this.directPaths[start][end] == null || path.weight() < this.directPaths[start][end].weight())
+            {
+            
+               this.directPaths[start][end] = path;
+               this.directPaths[end][start] = path.flip();
+               this.directPathIds[start][end] = each;
+               this.directPathIds[end][start] = each;
+            
+            }
+         
+         }
       
-         this.kickOffAll(fileToRun);
+         if (knownDistances == null)
+         {
+         
+            findShortestPaths(this.directPaths, this.distances, this.nextHops);
+         
+         }
       
       }
    
-   }
-
-   public void kickOffAll()
-   {
-   
+      //Floyd-Warshall, filling in distances and the first room to head for on a shortest route between every pair
+      static void findShortestPaths(Path[][] directPaths, int[][] distances, int[][] nextHops)
+      {
+      
+         final int size = distances.length;
+      
+         for (int from = 0; from < size; from++)
+         {
+         
+            for (int to = 0; to < size; to++)
+            {
+            
+               distances[from][to] = from == to ? 0 : directPaths[from][to] == null ? UNREACHABLE : directPaths[from][to].weight();
+               nextHops[from][to] = from == to || directPaths[from][to] != null ? to : -1;
+            
+            }
+         
+         }
+      
+         for (int middle = 0; middle < size; middle++)
+         {
+         
+            for (int from = 0; from < size; from++)
+            {
+            
+               for (int to = 0; to < size; to++)
+               {
+               
+                  final int viaMiddle = distances[from][middle] + distances[middle][to];
+               
+                  if (viaMiddle < distances[from][to])
+                  {
+                  
+                     distances[from][to] = viaMiddle;
+                     nextHops[from][to] = nextHops[from][middle];
+                  
+                  }
+               
+               }
+            
+            }
+         
+         }
+      
+      }
+   
+      public int size()
+      {
+      
+         return this.nodes.size();
+      
+      }
+   
+      public int id(Node node)
+      {
+      
+         final Integer id = this.ids.get(node);
+      
+         if (id == null)
+         {
+         
+            throw new IllegalArgumentException("Node is not on the map! node = " + node);
+         
+         }
+      
+         return id;
+      
+      }
+   
+      public Node node(int id)
+      {
+      
+         return this.nodes.get(id);
+      
+      }
+   
+      public int distance(int from, int to)
+      {
+      
+         return this.distances[from][to];
+      
+      }
+   
+      public int pathCount()
+      {
+      
+         return this.paths.size();
+      
+      }
+   
+      public int weightOf(int path)
+      {
+      
+         return this.paths.get(path).weight();
+      
+      }
+   
+      //The room at the other end of path, walking it from room
+      public int across(int path, int room)
+      {
+      
+         return this.pathStarts[path] == room ? this.pathEnds[path] : this.pathStarts[path];
+      
+      }
+   
+      //The lightest Path straight between 2 rooms, which is the only 1 on a ContractedMap
+      public int pathBetween(int from, int to)
+      {
+      
+         if (this.directPaths[from][to] == null)
+         {
+         
+            throw new IllegalArgumentException("Rooms are not next to each other! from = " + this.node(from) + " to = " + this.node(to));
+         
+         }
+      
+         return this.directPathIds[from][to];
+      
+      }
+   
+      //Walks path from room onto the end of chain, whichever way round the GameMap wrote it
+      public Chain step(Chain chain, int room, int path)
+      {
+      
+         final Path each = this.paths.get(path);
+      
+         return chain.add(each.startsWith(this.node(room)) ? each : each.flip());
+      
+      }
+   
+      //Walks the shortest route between 2 rooms onto the end of chain
+      public Chain extend(Chain chain, int from, int to)
+      {
+      
+         Chain result = chain;
+      
+         for (int current = from; current != to; current = this.nextHops[current][to])
+         {
+         
+            result = result.add(this.directPaths[current][this.nextHops[current][to]]);
+         
+         }
+      
+         return result;
+      
+      }
+   
+      //The weight of chainThrough(order), without building the Chain
+      public int weightThrough(int[] order)
+      {
+      
+         final boolean[] visited = new boolean[this.size()];
+      
+         int weight = 0;
+         int current = order[0];
+      
+         visited[current] = true;
+      
+         for (int i = 1; i < order.length; i++)
+         {
+         
+            if (visited[order[i]])
+            {
+            
+               continue;
+            
+            }
+         
+            for (int each = current; each != order[i]; each = this.nextHops[each][order[i]])
+            {
+            
+               visited[this.nextHops[each][order[i]]] = true;
+            
+            }
+         
+            weight += this.distances[current][order[i]];
+            current = order[i];
+         
+         }
+      
+         return weight;
+      
+      }
+   
+      //Walks the rooms in order, taking the shortest route between each pair
+      //Rooms already passed on the way to an earlier one are skipped, which can only make the walk lighter
+      public Chain chainThrough(int[] order)
+      {
+      
+         final boolean[] visited = new boolean[this.size()];
+      
+         Chain chain = Chain.empty();
+         int current = order[0];
+      
+         visited[current] = true;
+      
+         for (int i = 1; i < order.length; i++)
+         {
+         
+            if (visited[order[i]])
+            {
+            
+               continue;
+            
+            }
+         
+            for (int each = current; each != order[i]; each = this.nextHops[each][order[i]])
+            {
+            
+               visited[this.nextHops[each][order[i]]] = true;
+            
+            }
+         
+            chain = this.extend(chain, current, order[i]);
+            current = order[i];
+         
+         }
+      
+         return chain;
+      
+      }
+   
+      public int totalWeight()
+      {
+      
+         int totalWeight = 0;
+      
+         for (Path each : this.paths)
+         {
+         
+            totalWeight += each.weight();
+         
+         }
+      
+         return totalWeight;
+      
+      }
+   
+      public boolean[] oddRooms()
+      {
+      
+         final boolean[] odd = new boolean[this.size()];
+      
+         for (int room = 0; room < odd.length; room++)
+         {
+         
+            odd[room] = this.incidentPaths[room].length % 2 == 1;
+         
+         }
+      
+         return odd;
+      
+      }
+   
+      //A walk from start that covers every Path ends on some room end. Walking each Path once leaves every odd room except start
+      //and end (or start and end themselves, if they are even) needing one more Path, so the extra walking pairs those rooms up
+      //The lightest pairing over every possible end is exactly the lightest full coverage walk, so this bound is tight
+      //Past MAX_ROOMS_FOR_PAIRING odd rooms the pairing table gets too big, and nearestPartnerBound stands in for it
+      public int openWalkLowerBound(int start, boolean[] odd)
+      {
+      
+         final List<Integer> rooms = new ArrayList<>();
+      
+         for (int room = 0; room < odd.length; room++)
+         {
+         
+            if (odd[room] || room == start)
+            {
+            
+               rooms.add(room);
+            
+            }
+         
+         }
+      
+         if (rooms.size() > MAX_ROOMS_FOR_PAIRING)
+         {
+         
+            return this.totalWeight() + this.nearestPartnerBound(start, odd);
+         
+         }
+      
+         final int count = rooms.size();
+         final int[] pairings = this.pairingTable(rooms.stream().mapToInt(Integer::intValue).toArray());
+      
+         int oddMask = 0;
+      
+         for (int i = 0; i < count; i++)
+         {
+         
+            if (odd[rooms.get(i)])
+            {
+            
+               oddMask |= 1 << i;
+            
+            }
+         
+         }
+      
+         final int startBit = 1 << rooms.indexOf(start);
+      
+         int extra = pairings[oddMask];
+      
+         for (int end = 0; end < count; end++)
+         {
+         
+            extra = Math.min(extra, pairings[oddMask ^ startBit ^ (1 << end)]);
+         
+         }
+      
+         return this.totalWeight() + extra;
+      
+      }
+   
+      //pairings[mask] is the lightest way to pair up the rooms in mask by shortest routes, where bit i stands for rooms[i]
+      //Masks with an odd number of rooms cannot be paired and come out UNREACHABLE
+      public int[] pairingTable(int[] rooms)
+      {
+      
+         final int[] pairings = new int[1 << rooms.length];
+      
+         for (int mask = 1; mask < pairings.length; mask++)
+         {
+         
+            pairings[mask] = UNREACHABLE;
+         
+            if (Integer.bitCount(mask) % 2 == 1)
+            {
+            
+               continue;
+            
+            }
+         
+            final int first = Integer.numberOfTrailingZeros(mask);
+         
+            for (int second = first + 1; second < rooms.length; second++)
+            {
+            
+               if ((mask & (1 << second)) != 0)
+               {
+               
+                  final int rest = pairings[mask & ~(1 << first) & ~(1 << second)];
+               
+                  pairings[mask] = Math.min(pairings[mask], rest + this.distances[rooms[first]][rooms[second]]);
+               
+               }
+            
+            }
+         
+         }
+      
+         return pairings;
+      
+      }
+   
+      //Every room that needs pairing pays at least half the trip to its closest partner, since each pair's trip gets split between
+      //the 2 of them. The room the route ends on never needs a partner, and letting off the one that pays the most covers every end
+      private int nearestPartnerBound(int start, boolean[] odd)
+      {
+      
+         final List<Integer> needy = new ArrayList<>();
+      
+         for (int room = 0; room < odd.length; room++)
+         {
+         
+            if (odd[room] != (room == start))
+            {
+            
+               needy.add(room);
+            
+            }
+         
+         }
+      
+         int total = 0;
+         int most = 0;
+      
+         for (int room : needy)
+         {
+         
+            int closest = UNREACHABLE;
+         
+            for (int partner : needy)
+            {
+            
+               if (partner != room)
+               {
+               
+                  closest = Math.min(closest, this.distances[room][partner]);
+               
+               }
+            
+            }
+         
+            if (closest == UNREACHABLE)
+            {
+            
+               continue;
+            
+            }
+         
+            total += closest;
+            most = Math.max(most, closest);
+         
+         }
+      
+         return (total - most) / 2;
+      
+      }
+   
+      //A good route covering every Path, found in a blink. Only the odd rooms need extra walking, and one of them gets to be where
+      //the route ends, so those are paired up closest first, the pairs get swapped around while that makes them lighter, and
+      //the shortest route between each pair is walked twice. Every room is even after that, and an Euler walk reads the route off
+      public Chain greedyCoverageWalk(int start)
+      {
+      
+         return this.pairedWalk(start, this.greedyPartners(start));
+      
+      }
+   
+      //The pairing greedyCoverageWalk walks. partners[room] is the room it is paired with, the room itself for the 1 room left
+      //unpaired, which is where the route ends, and -1 for every room that never needed a partner
+      public int[] greedyPartners(int start)
+      {
+      
+         return this.greedyPartners(start, this.oddRooms());
+      
+      }
+   
+      //Same, pairing up the rooms odd says are odd instead of the odd rooms of the whole map. odd gets changed along the way
+      public int[] greedyPartners(int start, boolean[] odd)
+      {
+      
+         //Whichever room is left unpaired is where the route ends, and starting on an odd room makes it even
+         odd[start] = !odd[start];
+      
+         final List<Integer> unpaired = new ArrayList<>();
+      
+         for (int room = 0; room < odd.length; room++)
+         {
+         
+            if (odd[room])
+            {
+            
+               unpaired.add(room);
+            
+            }
+         
+         }
+      
+         final List<int[]> pairs = new ArrayList<>();
+      
+         while (unpaired.size() > 1)
+         {
+         
+            int bestFirst = 0;
+            int bestSecond = 1;
+         
+            for (int first = 0; first < unpaired.size(); first++)
+            {
+            
+               for (int second = first + 1; second < unpaired.size(); second++)
+               {
+               
+                  if (this.distance(unpaired.get(first), unpaired.get(second)) < this.distance(unpaired.get(bestFirst), unpaired.get(bestSecond)))
+                  {
+                  
+                     bestFirst = first;
+                     bestSecond = second;
+                  
+                  }
+               
+               }
+            
+            }
+         
+            pairs.add(new int[] {unpaired.get(bestFirst), unpaired.get(bestSecond)});
+         
+            unpaired.remove(bestSecond);
+            unpaired.remove(bestFirst);
+         
+         }
+      
+         final int[] end = {unpaired.get(0)};
+      
+         this.improvePairs(pairs, end);
+      
+         final int[] partners = new int[this.size()];
+      
+         Arrays.fill(partners, -1);
+      
+         for (int[] pair : pairs)
+         {
+         
+            partners[pair[0]] = pair[1];
+            partners[pair[1]] = pair[0];
+         
+         }
+      
+         partners[end[0]] = end[0];
+      
+         return partners;
+      
+      }
+   
+      //Every Path once, plus a shortest route between every pair of partners once more, read off as 1 Euler walk from start
+      public Chain pairedWalk(int start, int[] partners)
+      {
+      
+         final int[] uses = new int[this.pathCount()];
+      
+         Arrays.fill(uses, 1);
+      
+         return this.pairedWalk(start, partners, uses);
+      
+      }
+   
+      //Same, on top of uses instead of every Path once. uses gets changed along the way
+      public Chain pairedWalk(int start, int[] partners, int[] uses)
+      {
+      
+         for (int room = 0; room < partners.length; room++)
+         {
+         
+            final int partner = partners[room];
+         
+            if (partner > room)
+            {
+            
+               this.walkShortestRoute(uses, room, partner);
+            
+            }
+         
+         }
+      
+         return this.eulerWalk(start, uses);
+      
+      }
+   
+      //1 more use of every Path on the shortest route between 2 rooms
+      public void walkShortestRoute(int[] uses, int from, int to)
+      {
+      
+         for (int current = from; current != to; current = this.nextHops[current][to])
+         {
+         
+            uses[this.directPathIds[current][this.nextHops[current][to]]]++;
+         
+         }
+      
+      }
+   
+      //How much extra walking a pairing costs on top of walking every Path once
+      public int pairingWeight(int[] partners)
+      {
+      
+         int weight = 0;
+      
+         for (int room = 0; room < partners.length; room++)
+         {
+         
+            if (partners[room] > room)
+            {
+            
+               weight += this.distances[room][partners[room]];
+            
+            }
+         
+         }
+      
+         return weight;
+      
+      }
+   
+      //2-opt on the pairing. Any 2 pairs can trade partners, and any pair can hand one of its rooms over to be the end instead
+      private void improvePairs(List<int[]> pairs, int[] end)
+      {
+      
+         boolean improved = true;
+      
+         while (improved)
+         {
+         
+            improved = false;
+         
+            for (int i = 0; i < pairs.size(); i++)
+            {
+            
+               final int[] first = pairs.get(i);
+            
+               for (int j = i + 1; j < pairs.size(); j++)
+               {
+               
+                  final int[] second = pairs.get(j);
+                  final int current = this.distance(first[0], first[1]) + this.distance(second[0], second[1]);
+                  final int crossed = this.distance(first[0], second[0]) + this.distance(first[1], second[1]);
+                  final int swapped = this.distance(first[0], second[1]) + this.distance(first[1], second[0]);
+               
+                  if (crossed < current && crossed <= swapped)
+                  {
+                  
+                     final int room = first[1];
+                     first[1] = second[0];
+                     second[0] = room;
+                     improved = true;
+                  
+                  }
+                  
+                  else if (swapped < current)
+                  {
+                  
+                     final int room = first[1];
+                     first[1] = second[1];
+                     second[1] = room;
+                     improved = true;
+                  
+                  }
+               
+               }
+            
+               for (int side = 0; side < 2; side++)
+               {
+               
+                  if (this.distance(first[1 - side], end[0]) < this.distance(first[0], first[1]))
+                  {
+                  
+                     final int room = first[side];
+                     first[side] = end[0];
+                     end[0] = room;
+                     improved = true;
+                  
+                  }
+               
+               }
+            
+            }
+         
+         }
+      
+      }
+   
+      //Hierholzer's algorithm, walking every Path as many times as uses says. Every room but start and the end is even by now
+      private Chain eulerWalk(int start, int[] uses)
+      {
+      
+         final int[] remaining = uses.clone();
+         final int[] nextIncident = new int[this.size()];
+         final Deque<Integer> rooms = new ArrayDeque<>(List.of(start));
+         final Deque<Integer> enteredBy = new ArrayDeque<>();
+         final List<Integer> reversedWalk = new ArrayList<>();
+      
+         while (!rooms.isEmpty())
+         {
+         
+            final int room = rooms.peek();
+            final int[] incident = this.incidentPaths[room];
+         
+            while (nextIncident[room] < incident.length && remaining[incident[nextIncident[room]]] == 0)
+            {
+            
+               nextIncident[room]++;
+            
+            }
+         
+            if (nextIncident[room] < incident.length)
+            {
+            
+               final int path = incident[nextIncident[room]];
+            
+               remaining[path]--;
+               rooms.push(this.across(path, room));
+               enteredBy.push(path);
+            
+            }
+            
+            else
+            {
+            
+               rooms.pop();
+            
+               if (!enteredBy.isEmpty())
+               {
+               
+                  reversedWalk.add(enteredBy.pop());
+               
+               }
+            
+            }
+         
+         }
+      
+         Chain chain = Chain.empty();
+         int room = start;
+      
+         for (int i = reversedWalk.size() - 1; i >= 0; i--)
+         {
+         
+            chain = this.step(chain, room, reversedWalk.get(i));
+            room = this.across(reversedWalk.get(i), room);
+         
+         }
+      
+         return chain;
+      
+      }
+   
+      //Any walk that reaches every room holds a spanning tree of the map, so it weighs at least this much
+      public int minimumSpanningTreeWeight()
+      {
+      
+         final int size = this.size();
+         final boolean[] inTree = new boolean[size];
+         final int[] cheapestLink = new int[size];
+      
+         Arrays.fill(cheapestLink, UNREACHABLE);
+      
+         cheapestLink[0] = 0;
+      
+         int total = 0;
+      
+         for (int added = 0; added < size; added++)
+         {
+         
+            int next = -1;
+         
+            for (int each = 0; each < size; each++)
+            {
+            
+               if (!inTree[each] && (next == -1 || cheapestLink[each] < cheapestLink[next]))
+               {
+               
+                  next = each;
+               
+               }
+            
+            }
+         
+            inTree[next] = true;
+            total += cheapestLink[next];
+         
+            for (int each = 0; each < size; each++)
+            {
+            
+               if (!inTree[each] && this.directPaths[next][each] != null)
+               {
+               
+                  cheapestLink[each] = Math.min(cheapestLink[each], this.directPaths[next][each].weight());
+               
+               }
+            
+            }
+         
+         }
+      
+         return total;
+      
+      }
+   
+   }
+
+   //What a partial coverage route has to cover a share of
+   enum Coverage
+   {
+   
+      ROOMS,
+      PATHS,
+      ;
+   
+   }
+
+   //Cheapest walk from the start that covers at least target rooms or Paths
+   //The state is the current room plus a bitmask of what is covered, and only that decides what the rest of the walk costs,
+   //so a state reached again without being lighter than last time is pruned. That memo is also what stops the walk looping forever
+   //Branches are pruned against the incumbent using the cheapest way to cover however many more items are still needed
+   private static final class PartialCoverageSearch
+   {
+   
+      private static final int MAX_ITEMS_FOR_EXACT_SEARCH = Long.SIZE;
+   
+      private final MapIndex index;
+      private final Coverage coverage;
+      private final int target;
+      private final int[] itemsByCost;
+      private final int[] itemCosts;
+      private final List<Map<Long, Integer>> bestWeightSeen = new ArrayList<>();
+      private final int[] walkedPaths;
+      private int start;
+      private int floor;
+      private int incumbentWeight;
+      private Chain incumbent;
+   
+      private PartialCoverageSearch(MapIndex index, Coverage coverage, int target)
+      {
+      
+         this.index = index;
+         this.coverage = coverage;
+         this.target = target;
+      
+         final int itemCount = coverage == Coverage.ROOMS ? index.size() : index.pathCount();
+      
+         this.itemCosts = new int[itemCount];
+      
+         for (int item = 0; item < itemCount; item++)
+         {
+         
+            this.itemCosts[item] = coverage == Coverage.ROOMS ? this.cheapestWayInto(item) : index.weightOf(item);
+         
+         }
+      
+         this.itemsByCost =
+            java.util.stream.IntStream
+               .range(0, itemCount)
+               .boxed()
+               .sorted(Comparator.comparingInt(item -> this.itemCosts[item]))
+               .mapToInt(Integer::intValue)
+               .toArray()
+               ;
+      
+         for (int room = 0; room < index.size(); room++)
+         {
+         
+            this.bestWeightSeen.add(new HashMap<>());
+         
+         }
+      
+         //A walk never stands on the same room with the same mask twice, and masks only grow, so this is as deep as it gets
+         this.walkedPaths = new int[(itemCount + 1) * index.size()];
+      
+      }
+   
+      private int cheapestWayInto(int room)
+      {
+      
+         int cheapest = MapIndex.UNREACHABLE;
+      
+         for (int path : this.index.incidentPaths[room])
+         {
+         
+            cheapest = Math.min(cheapest, this.index.weightOf(path));
+         
+         }
+      
+         return cheapest;
+      
+      }
+   
+      public BoundedChain solve(int start)
+      {
+      
+         return this.solve(start, null, 0);
+      
+      }
+   
+      //seed is any route already known to be good enough, and the search stops the moment it gets down to floor
+      public BoundedChain solve(int start, Chain seed, int floor)
+      {
+      
+         this.start = start;
+         this.floor = floor;
+         this.incumbent = this.greedyWalk();
+         this.incumbentWeight = this.incumbent.weight();
+      
+         if (seed != null && seed.weight() < this.incumbentWeight)
+         {
+         
+            this.incumbent = seed;
+            this.incumbentWeight = seed.weight();
+         
+         }
+      
+         if (this.itemCosts.length > MAX_ITEMS_FOR_EXACT_SEARCH)
+         {
+         
+            return new BoundedChain(this.incumbent, Math.min(Math.max(floor, this.rootLowerBound()), this.incumbentWeight));
+         
+         }
+      
+         final long startMask = this.coverage == Coverage.ROOMS ? 1L << start : 0L;
+         final int startCount = this.coverage == Coverage.ROOMS ? 1 : 0;
+      
+         this.search(start, startMask, startCount, 0, 0);
+      
+         return new BoundedChain(this.incumbent, this.incumbentWeight);
+      
+      }
+   
+      private void search(int room, long mask, int count, int weight, int depth)
+      {
+      
+         if (this.incumbentWeight <= this.floor)
+         {
+         
+            return;
+         
+         }
+      
+         if (count >= this.target)
+         {
+         
+            if (weight < this.incumbentWeight)
+            {
+            
+               this.incumbentWeight = weight;
+               this.incumbent = this.chainOf(depth);
+            
+            }
+         
+            return;
+         
+         }
+      
+         if (weight + this.lowerBound(mask, count) >= this.incumbentWeight)
+         {
+         
+            return;
+         
+         }
+      
+         final Integer seen = this.bestWeightSeen.get(room).get(mask);
+      
+         if (seen != null && seen <= weight)
+         {
+         
+            return;
+         
+         }
+      
+         this.bestWeightSeen.get(room).put(mask, weight);
+      
+         for (int path : this.index.incidentPaths[room])
+         {
+         
+            final int next = this.index.across(path, room);
+            final int item = this.coverage == Coverage.ROOMS ? next : path;
+            final boolean isNew = (mask & (1L << item)) == 0;
+         
+            this.walkedPaths[depth] = path;
+         
+            this.search
+               (
+                  next,
+                  mask | (1L << item),
+                  isNew ? count + 1 : count,
+                  weight + this.index.weightOf(path),
+                  depth + 1
+               );
+         
+         }
+      
+      }
+   
+      //Covering n more items costs at least as much as the n cheapest uncovered ones
+      private int lowerBound(long mask, int count)
+      {
+      
+         int needed = this.target - count;
+         int bound = 0;
+      
+         for (int i = 0; i < this.itemsByCost.length && needed > 0; i++)
+         {
+         
+            final int item = this.itemsByCost[i];
+         
+            if ((mask & (1L << item)) == 0)
+            {
+            
+               bound += this.itemCosts[item];
+               needed--;
+            
+            }
+         
+         }
+      
+         return bound;
+      
+      }
+   
+      //Same as lowerBound, for maps with too many items to fit in a mask. Only the starting room is covered at the start
+      private int rootLowerBound()
+      {
+      
+         final boolean countsRooms = this.coverage == Coverage.ROOMS;
+      
+         int needed = countsRooms ? this.target - 1 : this.target;
+         int bound = 0;
+      
+         for (int i = 0; i < this.itemsByCost.length && needed > 0; i++)
+         {
+         
+            final int item = this.itemsByCost[i];
+         
+            if (!countsRooms || item != this.start)
+            {
+            
+               bound += this.itemCosts[item];
+               needed--;
+            
+            }
+         
+         }
+      
+         return bound;
+      
+      }
+   
+      private Chain chainOf(int depth)
+      {
+      
+         Chain chain = Chain.empty();
+         int room = this.start;
+      
+         for (int i = 0; i < depth; i++)
+         {
+         
+            chain = this.index.step(chain, room, this.walkedPaths[i]);
+            room = this.index.across(this.walkedPaths[i], room);
+         
+         }
+      
+         return chain;
+      
+      }
+   
+      //Heads for whatever uncovered item is closest until enough are covered. Anything passed on the way counts too
+      private Chain greedyWalk()
+      {
+      
+         final boolean[] covered = new boolean[this.itemCosts.length];
+      
+         Chain chain = Chain.empty();
+         int room = this.start;
+         int count = 0;
+      
+         if (this.coverage == Coverage.ROOMS)
+         {
+         
+            covered[this.start] = true;
+            count++;
+         
+         }
+      
+         while (count < this.target)
+         {
+         
+            int bestItem = -1;
+            int bestDistance = MapIndex.UNREACHABLE;
+         
+            for (int item = 0; item < covered.length; item++)
+            {
+            
+               if (covered[item])
+               {
+               
+                  continue;
+               
+               }
+            
+               final int distance =
+                  this.coverage == Coverage.ROOMS
+                  ?
+                  this.index.distance(room, item)
+                  :
+                  Math.min(this.index.distance(room, this.index.pathStarts[item]), this.index.distance(room, this.index.pathEnds[item]))
+                     + this.index.weightOf(item)
+                  ;
+            
+               if (distance < bestDistance)
+               {
+               
+                  bestItem = item;
+                  bestDistance = distance;
+               
+               }
+            
+            }
+         
+            final int goal =
+               this.coverage == Coverage.ROOMS
+               ?
+               bestItem
+               :
+               this.index.distance(room, this.index.pathStarts[bestItem]) <= this.index.distance(room, this.index.pathEnds[bestItem])
+               ?
+               this.index.pathStarts[bestItem]
+               :
+               this.index.pathEnds[bestItem]
+               ;
+         
+            final List<Integer> walked = new ArrayList<>();
+         
+            for (int each = room; each != goal; each = this.index.nextHops[each][goal])
+            {
+            
+               walked.add(this.pathBetween(each, this.index.nextHops[each][goal]));
+            
+            }
+         
+            if (this.coverage == Coverage.PATHS)
+            {
+            
+               walked.add(bestItem);
+            
+            }
+         
+            for (int path : walked)
+            {
+            
+               chain = this.index.step(chain, room, path);
+               room = this.index.across(path, room);
+            
+               final int item = this.coverage == Coverage.ROOMS ? room : path;
+            
+               if (!covered[item])
+               {
+               
+                  covered[item] = true;
+                  count++;
+               
+               }
+            
+            }
+         
+         }
+      
+         return chain;
+      
+      }
+   
+      private int pathBetween(int from, int to)
+      {
+      
+         int cheapest = -1;
+      
+         for (int path : this.index.incidentPaths[from])
+         {
+         
+            if (this.index.across(path, from) == to && (cheapest == -1 || this.index.weightOf(path) < this.index.weightOf(cheapest)))
+            {
+            
+               cheapest = path;
+            
+            }
+         
+         }
+      
+         return cheapest;
+      
+      }
+   
+   }
+
+   //Cheapest walk from the start that walks every required Path at least once, with every other Path only there to get around
+   //Any such walk is a string of required Paths in some order and direction, with the shortest route from each one to the next
+   //in between, so the state is the current room plus a bitmask of the required Paths walked, memoized like PartialCoverageSearch
+   //The seed joins the pieces of the required Paths up with the shortest routes between them, pairs up the odd rooms that leaves,
+   //and reads off an Euler walk. Branches are pruned with whichever of 2 bounds on the extra walking is higher
+   //   pairing       the odd rooms of what is left, plus the current room, have to be paired up except for wherever the walk ends
+   //   connecting    every piece of what is left has to be reached, which costs at least a spanning tree over the pieces
+   private static final class RequiredCoverageSearch
+   {
+   
+      private static final int MAX_REQUIRED_FOR_EXACT_SEARCH = 32;
+   
+      private final MapIndex index;
+      private final int[] required;
+      private final int[] terminals;
+      private final int[] terminalOf;
+      private final int[] pairings;
+      private final List<Map<Long, Integer>> bestWeightSeen = new ArrayList<>();
+      private final int[] moves;
+      private final int start;
+      private int incumbentWeight;
+      private Chain incumbent;
+   
+      //Required Paths are named by their 2 rooms, written the way the map writes them minus the weight, like ab_cd or hall1,crypt2_cd
+      //Every Path between those 2 rooms is required
+      private RequiredCoverageSearch(MapIndex index, int start, String required)
+      {
+      
+         this(index, start, requiredPathsOf(index, required));
+      
+      }
+   
+      private RequiredCoverageSearch(MapIndex index, int start, int[] required)
+      {
+      
+         this.index = index;
+         this.start = start;
+         this.required = required.clone();
+      
+         this.terminalOf = new int[index.size()];
+      
+         Arrays.fill(this.terminalOf, -1);
+      
+         final List<Integer> terminals = new ArrayList<>();
+      
+         for (int room : this.roomsOfRequired())
+         {
+         
+            this.terminalOf[room] = terminals.size();
+            terminals.add(room);
+         
+         }
+      
+         this.terminals = terminals.stream().mapToInt(Integer::intValue).toArray();
+         this.pairings = this.terminals.length <= MapIndex.MAX_ROOMS_FOR_PAIRING ? index.pairingTable(this.terminals) : null;
+      
+         for (int room = 0; room < index.size(); room++)
+         {
+         
+            this.bestWeightSeen.add(new HashMap<>());
+         
+         }
+      
+         this.moves = new int[this.required.length];
+      
+      }
+   
+      private static int[] requiredPathsOf(MapIndex index, String required)
+      {
+      
+         Objects.requireNonNull(required);
+      
+         final Set<Integer> requiredPaths = new TreeSet<>();
+      
+         for (String corridor : required.split("_"))
+         {
+         
+            if (corridor.isEmpty())
+            {
+            
+               continue;
+            
+            }
+         
+            final Path rooms = Path.of(corridor + (corridor.indexOf(',') >= 0 ? ",0" : "0"));
+         
+            boolean found = false;
+         
+            for (int path = 0; path < index.pathCount(); path++)
+            {
+            
+               if (index.paths.get(path).equals(rooms))
+               {
+               
+                  requiredPaths.add(path);
+                  found = true;
+               
+               }
+            
+            }
+         
+            if (!found)
+            {
+            
+               throw new IllegalArgumentException("Required Path is not on the map! corridor = " + corridor);
+            
+            }
+         
+         }
+      
+         return requiredPaths.stream().mapToInt(Integer::intValue).toArray();
+      
+      }
+   
+      //The start and both rooms of every required Path, start first
+      private List<Integer> roomsOfRequired()
+      {
+      
+         final Set<Integer> rooms = new LinkedHashSet<>(List.of(this.start));
+      
+         for (int path : this.required)
+         {
+         
+            rooms.add(this.index.pathStarts[path]);
+            rooms.add(this.index.pathEnds[path]);
+         
+         }
+      
+         return new ArrayList<>(rooms);
+      
+      }
+   
+      public BoundedChain solve()
+      {
+      
+         this.incumbent = this.connectedSeed();
+         this.incumbentWeight = this.incumbent.weight();
+      
+         final int rootBound = this.lowerBound(this.start, 0L);
+      
+         if (this.required.length > MAX_REQUIRED_FOR_EXACT_SEARCH)
+         {
+         
+            return new BoundedChain(this.incumbent, Math.min(rootBound, this.incumbentWeight));
+         
+         }
+      
+         this.search(this.start, 0L, 0, 0, rootBound);
+      
+         return new BoundedChain(this.incumbent, this.incumbentWeight);
+      
+      }
+   
+      private void search(int room, long walked, int weight, int depth, int floor)
+      {
+      
+         if (depth == this.required.length)
+         {
+         
+            if (weight < this.incumbentWeight)
+            {
+            
+               this.incumbentWeight = weight;
+               this.incumbent = this.chainOf(depth);
+            
+            }
+         
+            return;
+         
+         }
+      
+         //Nothing can beat a route as light as the root bound, so once one turns up there is no point looking any further
+         if (this.incumbentWeight <= floor || weight + this.lowerBound(room, walked) >= this.incumbentWeight)
+         {
+         
+            return;
+         
+         }
+      
+         final Integer seen = this.bestWeightSeen.get(room).get(walked);
+      
+         if (seen != null && seen <= weight)
+         {
+         
+            return;
+         
+         }
+      
+         this.bestWeightSeen.get(room).put(walked, weight);
+      
+         //Closest first, so good routes turn up early and prune the rest. Each move is item * 2, plus 1 if walked end to start
+         final List<Integer> next = new ArrayList<>();
+      
+         for (int item = 0; item < this.required.length; item++)
+         {
+         
+            if ((walked & (1L << item)) == 0)
+            {
+            
+               next.add(item * 2);
+               next.add(item * 2 + 1);
+            
+            }
+         
+         }
+      
+         next.sort(Comparator.comparingInt(move -> this.index.distance(room, this.entryOf(move))));
+      
+         for (int move : next)
+         {
+         
+            final int path = this.required[move / 2];
+            final int entry = this.entryOf(move);
+         
+            this.moves[depth] = move;
+         
+            this.search
+               (
+                  this.index.across(path, entry),
+                  walked | (1L << (move / 2)),
+                  weight + this.index.distance(room, entry) + this.index.weightOf(path),
+                  depth + 1,
+                  floor
+               );
+         
+         }
+      
+      }
+   
+      private int entryOf(int move)
+      {
+      
+         final int path = this.required[move / 2];
+      
+         return
+            move % 2 == 0
+            ?
+            this.index.pathStarts[path]
+            :
+            this.index.pathEnds[path]
+            ;
+      
+      }
+   
+      //What is left to walk, plus the higher of the pairing and connecting bounds on getting around between it
+      private int lowerBound(int room, long walked)
+      {
+      
+         return this.lowerBound(room, walked, -1);
+      
+      }
+   
+      //Same, for a walk that has to finish on end, or anywhere if end is -1. end has to be the start or on a required Path
+      private int lowerBound(int room, long walked, int end)
+      {
+      
+         final boolean[] odd = new boolean[this.terminals.length];
+         final int[] pieces = new int[this.terminals.length];
+      
+         int left = 0;
+      
+         for (int i = 0; i < pieces.length; i++)
+         {
+         
+            pieces[i] = i;
+         
+         }
+      
+         for (int item = 0; item < this.required.length; item++)
+         {
+         
+            if ((walked & (1L << item)) == 0)
+            {
+            
+               final int path = this.required[item];
+               final int first = this.terminalOf[this.index.pathStarts[path]];
+               final int second = this.terminalOf[this.index.pathEnds[path]];
+            
+               left += this.index.weightOf(path);
+               odd[first] = !odd[first];
+               odd[second] = !odd[second];
+               pieces[root(pieces, first)] = root(pieces, second);
+            
+            }
+         
+         }
+      
+         final int here = this.terminalOf[room];
+         final int there = end == -1 ? -1 : this.terminalOf[end];
+      
+         odd[here] = !odd[here];
+      
+         if (there != -1)
+         {
+         
+            odd[there] = !odd[there];
+         
+         }
+      
+         return left + Math.max(this.pairingBound(odd, there == -1), this.connectingBound(pieces, walked, here, there));
+      
+      }
+   
+      private static int root(int[] pieces, int terminal)
+      {
+      
+         int root = terminal;
+      
+         while (pieces[root] != root)
+         {
+         
+            root = pieces[root];
+         
+         }
+      
+         pieces[terminal] = root;
+      
+         return root;
+      
+      }
+   
+      //The walk's extra Paths pair up the rooms in odd, except for the 1 the walk ends on if it can end anywhere. Too many rooms
+      //for the table gets the same nearest partner bound openWalkLowerBound falls back on
+      private int pairingBound(boolean[] odd, boolean anyEnd)
+      {
+      
+         if (this.pairings == null)
+         {
+         
+            int total = 0;
+            int most = 0;
+         
+            for (int room = 0; room < odd.length; room++)
+            {
+            
+               int closest = MapIndex.UNREACHABLE;
+            
+               for (int partner = 0; partner < odd.length; partner++)
+               {
+               
+                  if (odd[room] && odd[partner] && partner != room)
+                  {
+                  
+                     closest = Math.min(closest, this.index.distance(this.terminals[room], this.terminals[partner]));
+                  
+                  }
+               
+               }
+            
+               if (closest != MapIndex.UNREACHABLE)
+               {
+               
+                  total += closest;
+                  most = Math.max(most, closest);
+               
+               }
+            
+            }
+         
+            return
+               anyEnd
+               ?
+               (total - most) / 2
+               :
+               total / 2
+               ;
+         
+         }
+      
+         int mask = 0;
+      
+         for (int i = 0; i < odd.length; i++)
+         {
+         
+            if (odd[i])
+            {
+            
+               mask |= 1 << i;
+            
+            }
+         
+         }
+      
+         if (!anyEnd)
+         {
+         
+            return this.pairings[mask];
+         
+         }
+      
+         int bound = MapIndex.UNREACHABLE;
+      
+         for (int end = 0; end < odd.length; end++)
+         {
+         
+            if (odd[end])
+            {
+            
+               bound = Math.min(bound, this.pairings[mask ^ (1 << end)]);
+            
+            }
+         
+         }
+      
+         return bound;
+      
+      }
+   
+      //A spanning tree over the pieces, with the shortest distance between 2 pieces as the cost of linking them. The pieces are
+      //the bits of the required Paths left that hang together, plus wherever the walk is now and wherever it has to finish
+      //Between walking 1 required Path and the next, the walk gets from 1 piece to another, so those trips link every piece up
+      //and cost at least as much as the tree
+      private int connectingBound(int[] pieces, long walked, int here, int there)
+      {
+      
+         final List<Integer> counted = new ArrayList<>(List.of(root(pieces, here)));
+      
+         if (there != -1 && !counted.contains(root(pieces, there)))
+         {
+         
+            counted.add(root(pieces, there));
+         
+         }
+      
+         for (int item = 0; item < this.required.length; item++)
+         {
+         
+            final int piece = root(pieces, this.terminalOf[this.index.pathStarts[this.required[item]]]);
+         
+            if ((walked & (1L << item)) == 0 && !counted.contains(piece))
+            {
+            
+               counted.add(piece);
+            
+            }
+         
+         }
+      
+         final int count = counted.size();
+         final int[][] between = new int[count][count];
+      
+         for (int[] row : between)
+         {
+         
+            Arrays.fill(row, MapIndex.UNREACHABLE);
+         
+         }
+      
+         for (int first = 0; first < pieces.length; first++)
+         {
+         
+            final int firstPiece = counted.indexOf(root(pieces, first));
+         
+            for (int second = first + 1; firstPiece >= 0 && second < pieces.length; second++)
+            {
+            
+               final int secondPiece = counted.indexOf(root(pieces, second));
+            
+               if (secondPiece >= 0 && secondPiece != firstPiece)
+               {
+               
+                  final int distance = this.index.distance(this.terminals[first], this.terminals[second]);
+               
+                  between[firstPiece][secondPiece] = Math.min(between[firstPiece][secondPiece], distance);
+                  between[secondPiece][firstPiece] = between[firstPiece][secondPiece];
+               
+               }
+            
+            }
+         
+         }
+      
+         //Prim's, the same as minimumSpanningTreeWeight but over pieces
+         final boolean[] inTree = new boolean[count];
+         final int[] cheapestLink = new int[count];
+      
+         Arrays.fill(cheapestLink, MapIndex.UNREACHABLE);
+      
+         cheapestLink[0] = 0;
+      
+         int total = 0;
+      
+         for (int added = 0; added < count; added++)
+         {
+         
+            int next = -1;
+         
+            for (int each = 0; each < count; each++)
+            {
+            
+               if (!inTree[each] && (next == -1 || cheapestLink[each] < cheapestLink[next]))
+               {
+               
+                  next = each;
+               
+               }
+            
+            }
+         
+            inTree[next] = true;
+            total += cheapestLink[next];
+         
+            for (int each = 0; each < count; each++)
+            {
+            
+               cheapestLink[each] = Math.min(cheapestLink[each], between[next][each]);
+            
+            }
+         
+         }
+      
+         return total;
+      
+      }
+   
+      private Chain chainOf(int depth)
+      {
+      
+         Chain chain = Chain.empty();
+         int room = this.start;
+      
+         for (int i = 0; i < depth; i++)
+         {
+         
+            final int path = this.required[this.moves[i] / 2];
+            final int entry = this.entryOf(this.moves[i]);
+         
+            chain = this.index.step(this.index.extend(chain, room, entry), entry, path);
+            room = this.index.across(path, entry);
+         
+         }
+      
+         return chain;
+      
+      }
+   
+      //Joins the pieces of the required Paths and the start up Kruskal style, closest 2 pieces first, along the shortest route
+      //between them. Then the odd rooms get paired up the same way greedyCoverageWalk pairs them, and an Euler walk reads it off
+      private Chain connectedSeed()
+      {
+      
+         if (this.required.length == 0)
+         {
+         
+            return Chain.empty();
+         
+         }
+      
+         final int[] uses = new int[this.index.pathCount()];
+         final int[] pieces = new int[this.terminals.length];
+      
+         for (int i = 0; i < pieces.length; i++)
+         {
+         
+            pieces[i] = i;
+         
+         }
+      
+         for (int path : this.required)
+         {
+         
+            uses[path]++;
+            pieces[root(pieces, this.terminalOf[this.index.pathStarts[path]])] = root(pieces, this.terminalOf[this.index.pathEnds[path]]);
+         
+         }
+      
+         final List<int[]> links = new ArrayList<>();
+      
+         for (int first = 0; first < pieces.length; first++)
+         {
+         
+            for (int second = first + 1; second < pieces.length; second++)
+            {
+            
+               if (root(pieces, first) != root(pieces, second))
+               {
+               
+                  links.add(new int[] {first, second});
+               
+               }
+            
+            }
+         
+         }
+      
+         links.sort(Comparator.comparingInt(link -> this.index.distance(this.terminals[link[0]], this.terminals[link[1]])));
+      
+         for (int[] link : links)
+         {
+         
+            final int first = root(pieces, link[0]);
+            final int second = root(pieces, link[1]);
+         
+            if (first != second)
+            {
+            
+               pieces[first] = second;
+            
+               this.index.walkShortestRoute(uses, this.terminals[link[0]], this.terminals[link[1]]);
+            
+            }
+         
+         }
+      
+         final boolean[] odd = new boolean[this.index.size()];
+      
+         for (int path = 0; path < uses.length; path++)
+         {
+         
+            if (uses[path] % 2 == 1)
+            {
+            
+               odd[this.index.pathStarts[path]] = !odd[this.index.pathStarts[path]];
+               odd[this.index.pathEnds[path]] = !odd[this.index.pathEnds[path]];
+            
+            }
+         
+         }
+      
+         return this.index.pairedWalk(this.start, this.index.greedyPartners(this.start, odd), uses);
+      
+      }
+   
+   }
+
+   //Meet in the middle, over the same moves RequiredCoverageSearch makes with every Path required: head down the shortest route
+   //to a Path not walked yet, then walk it. A route that walks all m Paths that way splits after the first (m + 1) / 2 of them
+   //Front halves grow forward from the start and back halves grow backward from wherever the route ends, which can be any room,
+   //1 Path per layer, keeping only the cheapest cost per (room, Paths walked). Neither side ever goes more than half the route
+   //deep, and both drop any half RequiredCoverageSearch's bounds say cannot beat the greedy route
+   //A front half that walked mask meets the back halves that walked everything else through 1 hash lookup on the complement,
+   //joined by the shortest route between the rooms the 2 halves stand on
+   private static final class MeetInTheMiddleSearch
+   {
+   
+      private static final int MAX_PATHS = Long.SIZE - 1;
+   
+      private final MapIndex index;
+      private final int start;
+      private final RequiredCoverageSearch bounds;
+      private final SearchProgress progress;
+      private final long everything;
+      private final List<Map<Long, int[]>> fronts = new ArrayList<>();
+      private final List<Map<Long, int[]>> backs = new ArrayList<>();
+      private int incumbentWeight;
+   
+      private MeetInTheMiddleSearch(MapIndex index, int start, SearchProgress progress)
+      {
+      
+         if (index.pathCount() > MAX_PATHS)
+         {
+         
+            throw new IllegalArgumentException("Too many Paths to meet in the middle! paths = " + index.pathCount());
+         
+         }
+      
+         this.index = index;
+         this.start = start;
+         this.progress = progress;
+         this.bounds = new RequiredCoverageSearch(index, start, IntStream.range(0, index.pathCount()).toArray());
+         this.everything = (1L << index.pathCount()) - 1;
+      
+      }
+   
+      public Chain solve()
+      {
+      
+         final Chain seed = this.index.greedyCoverageWalk(this.start);
+         final int half = (this.index.pathCount() + 1) / 2;
+      
+         this.incumbentWeight = seed.weight();
+      
+         this.progress.reset(seed.weight(), this.index.openWalkLowerBound(this.start, this.index.oddRooms()));
+      
+         final int[] atStart = new int[this.index.size()];
+      
+         Arrays.fill(atStart, MapIndex.UNREACHABLE);
+      
+         atStart[this.start] = 0;
+      
+         this.fronts.add(new HashMap<>(Map.of(0L, atStart)));
+      
+         //Nothing walked yet and the route can end anywhere, so every room is free to start the back half from
+         this.backs.add(new HashMap<>(Map.of(0L, new int[this.index.size()])));
+      
+         for (int layer = 1; layer <= half; layer++)
+         {
+         
+            this.fronts.add(this.grow(this.fronts.get(layer - 1), true));
+         
+         }
+      
+         for (int layer = 1; layer <= this.index.pathCount() - half; layer++)
+         {
+         
+            this.backs.add(this.grow(this.backs.get(layer - 1), false));
+         
+         }
+      
+         final Map<Long, int[]> back = this.backs.get(this.index.pathCount() - half);
+      
+         long bestMask = -1;
+         int bestFront = -1;
+         int bestBack = -1;
+      
+         for (Map.Entry<Long, int[]> each : this.fronts.get(half).entrySet())
+         {
+         
+            final int[] backCosts = back.get(this.everything ^ each.getKey());
+         
+            if (backCosts == null)
+            {
+            
+               continue;
+            
+            }
+         
+            final int[] frontCosts = each.getValue();
+         
+            for (int front = 0; front < frontCosts.length; front++)
+            {
+            
+               for (int room = 0; room < backCosts.length && frontCosts[front] < MapIndex.UNREACHABLE; room++)
+               {
+               
+                  final int weight = frontCosts[front] + this.index.distance(front, room) + backCosts[room];
+               
+                  if (weight < this.incumbentWeight)
+                  {
+                  
+                     this.incumbentWeight = weight;
+                     this.progress.improve(weight);
+                  
+                     bestMask = each.getKey();
+                     bestFront = front;
+                     bestBack = room;
+                  
+                  }
+               
+               }
+            
+            }
+         
+         }
+      
+         //Nothing beat the greedy route, so it was already a cheapest one
+         if (bestMask == -1)
+         {
+         
+            return seed;
+         
+         }
+      
+         final List<int[]> moves = this.movesBack(this.fronts, half, bestMask, bestFront);
+      
+         Collections.reverse(moves);
+      
+         moves.addAll(this.movesBack(this.backs, this.index.pathCount() - half, this.everything ^ bestMask, bestBack));
+      
+         Chain chain = Chain.empty();
+         int room = this.start;
+      
+         for (int[] move : moves)
+         {
+         
+            chain = this.index.step(this.index.extend(chain, room, move[1]), move[1], move[0]);
+            room = this.index.across(move[0], move[1]);
+         
+         }
+      
+         return chain;
+      
+      }
+   
+      //Every way to walk 1 more Path from every half in previous, cheapest per (room, Paths walked), minus whatever the bounds
+      //rule out. A front half has the rest of the route ahead of it and can end anywhere, while a back half has the start of
+      //the route still to come, so whatever gets added has to reach all the way back to the start
+      private Map<Long, int[]> grow(Map<Long, int[]> previous, boolean forward)
+      {
+      
+         final Map<Long, int[]> next = new HashMap<>();
+      
+         for (Map.Entry<Long, int[]> each : previous.entrySet())
+         {
+         
+            final long mask = each.getKey();
+            final int[] costs = each.getValue();
+         
+            for (int room = 0; room < costs.length; room++)
+            {
+            
+               if (costs[room] >= MapIndex.UNREACHABLE)
+               {
+               
+                  continue;
+               
+               }
+            
+               this.progress.visit();
+            
+               for (int path = 0; path < this.index.pathCount(); path++)
+               {
+               
+                  if ((mask & (1L << path)) != 0)
+                  {
+                  
+                     continue;
+                  
+                  }
+               
+                  for (int entry : new int[] {this.index.pathStarts[path], this.index.pathEnds[path]})
+                  {
+                  
+                     final int cost = costs[room] + this.index.distance(room, entry) + this.index.weightOf(path);
+                     final int[] nextCosts =
+                        next.computeIfAbsent
+                        (
+                           mask | (1L << path),
+                           key ->
+                           {
+                           
+                              final int[] fresh = new int[costs.length];
+                           
+                              Arrays.fill(fresh, MapIndex.UNREACHABLE);
+                           
+                              return fresh;
+                           
+                           }
+                        );
+                     final int exit = this.index.across(path, entry);
+                  
+                     nextCosts[exit] = Math.min(nextCosts[exit], cost);
+                  
+                  }
+               
+               }
+            
+            }
+         
+         }
+      
+         //Bounded once per (room, Paths walked) rather than once per way of getting there
+         next
+            .entrySet()
+            .removeIf
+            (
+               each ->
+               {
+               
+                  final int[] costs = each.getValue();
+                  boolean any = false;
+               
+                  for (int room = 0; room < costs.length; room++)
+                  {
+                  
+                     final int bound =
+                        forward
+                        ?
+                        this.bounds.lowerBound(room, each.getKey())
+                        :
+                        this.bounds.lowerBound(room, each.getKey(), this.start)
+                        ;
+                  
+                     if (costs[room] < MapIndex.UNREACHABLE && costs[room] + bound >= this.incumbentWeight)
+                     {
+                     
+                        costs[room] = MapIndex.UNREACHABLE;
+                     
+                     }
+                  
+                     any |= costs[room] < MapIndex.UNREACHABLE;
+                  
+                  }
+               
+                  return !any;
+               
+               }
+            );
+      
+         return next;
+      
+      }
+   
+      //The moves that got a half to room having walked mask, as {path, room it was walked from}, from layer down to nothing
+      //Front halves come out last move first and back halves come out in the order the route walks them
+      private List<int[]> movesBack(List<Map<Long, int[]>> layers, int layer, long mask, int room)
+      {
+      
+         final List<int[]> moves = new ArrayList<>();
+      
+         int cost = layers.get(layer).get(mask)[room];
+      
+         for (int depth = layer; depth > 0; depth--)
+         {
+         
+            final int[] found = this.previousOf(layers.get(depth - 1), mask, room, cost);
+            final int path = found[0];
+            final int entry = this.index.across(path, room);
+         
+            moves.add
+            (
+               layers == this.fronts
+               ?
+               new int[] {path, entry}
+               :
+               new int[] {path, room}
+            );
+         
+            mask &= ~(1L << path);
+            room = found[1];
+            cost = layers.get(depth - 1).get(mask)[room];
+         
+         }
+      
+         return moves;
+      
+      }
+   
+      //{path, room} of a half in previous that walking path gets to room from for exactly cost. Only the cheapest way to each
+      //half is kept, so the cost always adds up for at least 1 of them
+      private int[] previousOf(Map<Long, int[]> previous, long mask, int room, int cost)
+      {
+      
+         for (int path : this.index.incidentPaths[room])
+         {
+         
+            final int[] costs = previous.get(mask & ~(1L << path));
+         
+            if ((mask & (1L << path)) == 0 || costs == null)
+            {
+            
+               continue;
+            
+            }
+         
+            final int entry = this.index.across(path, room);
+         
+            for (int from = 0; from < costs.length; from++)
+            {
+            
+               if (costs[from] < MapIndex.UNREACHABLE && costs[from] + this.index.distance(from, entry) + this.index.weightOf(path) == cost)
+               {
+               
+                  return new int[] {path, from};
+               
+               }
+            
+            }
+         
+         }
+      
+         throw new IllegalStateException("No half leads here! room = " + room + " mask = " + mask + " cost = " + cost);
+      
+      }
+   
+   }
+
+   //A GameMap that changes while the player is in the dungeon. Rooms get revealed, Path weights change, the player moves
+   //Distances and odd rooms are kept up to date one change at a time instead of being rebuilt, and each solve starts from the
+   //last route patched up to fit the new map. That route is often already as light as the pairing bound, and then there is no search at all
+   static final class MapSession
+   {
+   
+      private final List<Path> paths = new ArrayList<>();
+      private final List<Node> nodes = new ArrayList<>();
+      private final Map<Node, Integer> ids = new HashMap<>();
+      private final List<Path> addedSinceLastSolve = new ArrayList<>();
+      private Path[][] directPaths = new Path[0][0];
+      private int[][] distances = new int[0][0];
+      private int[][] nextHops = new int[0][0];
+      private boolean[] odd = new boolean[0];
+      private Node current;
+      private Node previousStart;
+      private String previousRoute;
+      private int lastWeight;
+      private int lastLowerBound;
+   
+      MapSession(String directions, String startingRoom)
+      {
+      
+         Objects.requireNonNull(directions);
+         Objects.requireNonNull(startingRoom);
+      
+         for (Path each : new PathFinderInputs(directions, startingRoom).generateGameMap().gameMap())
+         {
+         
+            this.add(each);
+         
+         }
+      
+         this.moveTo(startingRoom);
+      
+      }
+   
+      //A newly revealed Path, written the same way as in the file names (ab5). It has to touch a room already on the map
+      void addPath(String path)
+      {
+      
+         final Path newPath = Path.of(path);
+      
+         if (!this.ids.containsKey(newPath.start()) && !this.ids.containsKey(newPath.end()))
+         {
+         
+            throw new IllegalArgumentException("New path must touch a room already on the map! path = " + path);
+         
+         }
+      
+         if (this.paths.contains(newPath))
+         {
+         
+            throw new IllegalArgumentException("Path is already on the map! path = " + path);
+         
+         }
+      
+         this.add(newPath);
+         this.addedSinceLastSolve.add(newPath);
+      
+      }
+   
+      //A Path already on the map with a new weight, written the same way as in the file names (ab7)
+      void changeWeight(String path)
+      {
+      
+         final Path changed = Path.of(path);
+         final int position = this.paths.indexOf(changed);
+      
+         if (position == -1)
+         {
+         
+            throw new IllegalArgumentException("Path is not on the map! path = " + path);
+         
+         }
+      
+         final Path old = this.paths.get(position);
+         final Path replacement = new Path(old.start(), old.end(), changed.weight());
+         final int start = this.ids.get(old.start());
+         final int end = this.ids.get(old.end());
+      
+         this.paths.set(position, replacement);
+         this.addedSinceLastSolve.replaceAll(each -> each.equals(replacement) ? replacement : each);
+         this.directPaths[start][end] = replacement;
+         this.directPaths[end][start] = replacement.flip();
+      
+         if (replacement.weight() < old.weight())
+         {
+         
+            this.relaxThrough(start, end, replacement.weight());
+         
+         }
+         
+         else if (this.isOnAnyShortestPath(start, end, old.weight()))
+         {
+         
+            //Distances can only go up, and working out which ones is no cheaper than starting over
+            MapIndex.findShortestPaths(this.directPaths, this.distances, this.nextHops);
+         
+         }
+      
+      }
+   
+      void moveTo(String room)
+      {
+      
+         final Node node = new Node(room);
+      
+         if (!this.ids.containsKey(node))
+         {
+         
+            throw new IllegalArgumentException("Room is not on the map! room = " + room);
+         
+         }
+      
+         this.current = node;
+      
+      }
+   
+      //The cheapest route covering every Path from the current room, as comma separated rooms
+      String solve()
+      {
+      
+         final GameMap gameMap = new GameMap(this.paths);
+         final MapIndex index = new MapIndex(gameMap, this.distances, this.nextHops);
+         final int start = index.id(this.current);
+      
+         this.lastLowerBound = index.openWalkLowerBound(start, this.odd);
+      
+         final Chain warmStart = this.warmStart(gameMap, index);
+      
+         final BoundedChain result =
+            warmStart != null && warmStart.weight() <= this.lastLowerBound
+            ?
+            new BoundedChain(warmStart, this.lastLowerBound)
+            :
+            new PartialCoverageSearch(index, Coverage.PATHS, index.pathCount()).solve(start, warmStart, this.lastLowerBound)
+            ;
+      
+         this.lastWeight = result.chain().weight();
+         this.lastLowerBound = Math.max(this.lastLowerBound, result.lowerBound());
+         this.previousRoute = result.chain().toRooms(this.current);
+         this.previousStart = this.current;
+         this.addedSinceLastSolve.clear();
+      
+         return this.previousRoute;
+      
+      }
+   
+      int lastWeight()
+      {
+      
+         return this.lastWeight;
+      
+      }
+   
+      int lastLowerBound()
+      {
+      
+         return this.lastLowerBound;
+      
+      }
+   
+      //The last route, walked from wherever the player is now to where it used to start, then out to every Path added since
+      private Chain warmStart(GameMap gameMap, MapIndex index)
+      {
+      
+         if (this.previousRoute == null)
+         {
+         
+            return null;
+         
+         }
+      
+         Chain chain = index.extend(Chain.empty(), index.id(this.current), index.id(this.previousStart));
+      
+         for (Path each : Chain.fromRooms(gameMap, this.previousRoute).chain())
+         {
+         
+            chain = chain.add(each);
+         
+         }
+      
+         for (Path each : this.addedSinceLastSolve)
+         {
+         
+            if (chain.contains(each))
+            {
+            
+               continue;
+            
+            }
+         
+            final int room = chain.isEmpty() ? index.id(this.current) : index.id(chain.lastNode());
+            final int start = index.id(each.start());
+            final int end = index.id(each.end());
+            final boolean startIsCloser = index.distance(room, start) <= index.distance(room, end);
+         
+            chain = index.extend(chain, room, startIsCloser ? start : end);
+            chain = chain.add(startIsCloser ? each : each.flip());
+         
+         }
+      
+         return chain;
+      
+      }
+   
+      private void add(Path path)
+      {
+      
+         for (Node node : List.of(path.start(), path.end()))
+         {
+         
+            if (!this.ids.containsKey(node))
+            {
+            
+               this.ids.put(node, this.nodes.size());
+               this.nodes.add(node);
+               this.grow();
+            
+            }
+         
+         }
+      
+         final int start = this.ids.get(path.start());
+         final int end = this.ids.get(path.end());
+      
+         this.paths.add(path);
+         this.odd[start] = !this.odd[start];
+         this.odd[end] = !this.odd[end];
+         this.directPaths[start][end] = path;
+         this.directPaths[end][start] = path.flip();
+      
+         this.relaxThrough(start, end, path.weight());
+      
+      }
+   
+      //Room for one more room, which nothing can reach yet
+      private void grow()
+      {
+      
+         final int size = this.nodes.size();
+      
+         this.directPaths = Arrays.copyOf(this.directPaths, size);
+         this.distances = Arrays.copyOf(this.distances, size);
+         this.nextHops = Arrays.copyOf(this.nextHops, size);
+         this.odd = Arrays.copyOf(this.odd, size);
+         this.directPaths[size - 1] = new Path[size];
+         this.distances[size - 1] = new int[size];
+         this.nextHops[size - 1] = new int[size];
+      
+         for (int room = 0; room < size - 1; room++)
+         {
+         
+            this.directPaths[room] = Arrays.copyOf(this.directPaths[room], size);
+            this.distances[room] = Arrays.copyOf(this.distances[room], size);
+            this.nextHops[room] = Arrays.copyOf(this.nextHops[room], size);
+         
+            this.distances[room][size - 1] = MapIndex.UNREACHABLE;
+            this.distances[size - 1][room] = MapIndex.UNREACHABLE;
+            this.nextHops[room][size - 1] = -1;
+            this.nextHops[size - 1][room] = -1;
+         
+         }
+      
+         this.distances[size - 1][size - 1] = 0;
+         this.nextHops[size - 1][size - 1] = size - 1;
+      
+      }
+   
+      //A shortest route uses a new or lighter Path at most once, so every distance either stays or goes through it, one way or the other
+      private void relaxThrough(int start, int end, int weight)
+      {
+      
+         final int size = this.nodes.size();
+         final int[] toStart = new int[size];
+         final int[] toEnd = new int[size];
+         final int[] hopTowardsStart = new int[size];
+         final int[] hopTowardsEnd = new int[size];
+      
+         for (int room = 0; room < size; room++)
+         {
+         
+            toStart[room] = this.distances[room][start];
+            toEnd[room] = this.distances[room][end];
+            hopTowardsStart[room] = room == start ? end : this.nextHops[room][start];
+            hopTowardsEnd[room] = room == end ? start : this.nextHops[room][end];
+         
+         }
+      
+         for (int from = 0; from < size; from++)
+         {
+         
+            for (int to = 0; to < size; to++)
+            {
+            
+               final int viaStartFirst = throughPath(toStart[from], weight, toEnd[to]);
+               final int viaEndFirst = throughPath(toEnd[from], weight, toStart[to]);
+            
+               if (viaStartFirst < this.distances[from][to] && viaStartFirst <= viaEndFirst)
+               {
+               
+                  this.distances[from][to] = viaStartFirst;
+                  this.nextHops[from][to] = hopTowardsStart[from];
+               
+               }
+               
+               else if (viaEndFirst < this.distances[from][to])
+               {
+               
+                  this.distances[from][to] = viaEndFirst;
+                  this.nextHops[from][to] = hopTowardsEnd[from];
+               
+               }
+            
+            }
+         
+         }
+      
+      }
+   
+      private static int throughPath(int toPath, int weight, int fromPath)
+      {
+      
+         return toPath >= MapIndex.UNREACHABLE || fromPath >= MapIndex.UNREACHABLE ? MapIndex.UNREACHABLE : toPath + weight + fromPath;
+      
+      }
+   
+      private boolean isOnAnyShortestPath(int start, int end, int weight)
+      {
+      
+         final int size = this.nodes.size();
+      
+         for (int from = 0; from < size; from++)
+         {
+         
+            for (int to = 0; to < size; to++)
+            {
+            
+               if (throughPath(this.distances[from][start], weight, this.distances[end][to]) == this.distances[from][to]
+                     || throughPath(this.distances[from][end], weight, this.distances[start][to]) == this.distances[from][to])
+               {
+               
+                  return true;
+               
+               }
+            
+            }
+         
+         }
+      
+         return false;
+      
+      }
+   
+   }
+
+   //Everything a Chain knows about itself, but kept up to date one step at a time instead of recounted
+   //A worker pushes a Path, looks around, and pops it again, so walking down and back up the search allocates nothing
+   //Only a finished route gets turned into a Chain
+   private static final class SearchState
+   {
+   
+      //The same rules as Chain.isDominated, kept up to date per step instead of looked up
+      //A 3rd walk of a Path can still be part of a finished route, but dropping 2 of its walks leaves a lighter route that covers
+      //the same, so capping at MAX_TRAVERSALS only ever skips routes that cannot be the cheapest
+      //Each stretch of the walk since a new Path was last covered gets its own number, and every room is stamped with the
+      //number of the last stretch that reached it. Stepping onto a room stamped with the current stretch closes a useless loop
+      private static final int MAX_TRAVERSALS = Chain.MAX_TRAVERSALS;
+   
+      private final MapIndex index;
+      private final int start;
+      private final int totalWeight;
+      private final int[] stack;
+      private final int[] traversals;
+      private final int[] visits;
+      private final int[][] candidates;
+      private final int[][] candidateKeys;
+      private final int[] stamps;
+      private final int[] stretches;
+      private final int[] overwrittenStamps;
+      private int stretchCount;
+      private int depth;
+      private int room;
+      private int weight;
+      private int covered;
+      private int uncoveredWeight;
+   
+      SearchState(MapIndex index, int start)
+      {
+      
+         Objects.requireNonNull(index);
+      
+         this.index = index;
+         this.start = start;
+         this.stack = new int[MAX_TRAVERSALS * index.pathCount()];
+         this.traversals = new int[index.pathCount()];
+         this.visits = new int[index.size()];
+         this.candidates = new int[this.stack.length + 1][];
+         this.candidateKeys = new int[this.stack.length + 1][];
+         this.stamps = new int[index.size()];
+         this.stretches = new int[this.stack.length + 1];
+         this.overwrittenStamps = new int[this.stack.length + 1];
+         this.room = start;
+         this.stretches[0] = ++this.stretchCount;
+         this.stamps[start] = this.stretches[0];
+         this.totalWeight = index.totalWeight();
+         this.uncoveredWeight = this.totalWeight;
+      
+         int maxDegree = 0;
+      
+         for (int each = 0; each < index.size(); each++)
+         {
+         
+            maxDegree = Math.max(maxDegree, index.incidentPaths[each].length);
+         
+         }
+      
+         for (int each = 0; each < this.candidates.length; each++)
+         {
+         
+            this.candidates[each] = new int[maxDegree];
+            this.candidateKeys[each] = new int[maxDegree];
+         
+         }
+      
+      }
+   
+      //Same place in the search, but free for another worker to walk on its own
+      SearchState copy()
+      {
+      
+         final SearchState copy = new SearchState(this.index, this.start);
+      
+         for (int each = 0; each < this.depth; each++)
+         {
+         
+            copy.push(this.stack[each]);
+         
+         }
+      
+         return copy;
+      
+      }
+   
+      void push(int path)
+      {
+      
+         this.room = this.index.across(path, this.room);
+         this.weight += this.index.weightOf(path);
+         this.visits[this.room]++;
+         this.stretches[this.depth + 1] = this.traversals[path] == 0 ? ++this.stretchCount : this.stretches[this.depth];
+         this.overwrittenStamps[this.depth + 1] = this.stamps[this.room];
+         this.stamps[this.room] = this.stretches[this.depth + 1];
+         this.stack[this.depth++] = path;
+      
+         if (this.traversals[path]++ == 0)
+         {
+         
+            this.covered++;
+            this.uncoveredWeight -= this.index.weightOf(path);
+         
+         }
+      
+      }
+   
+      void pop()
+      {
+      
+         final int path = this.stack[--this.depth];
+      
+         if (--this.traversals[path] == 0)
+         {
+         
+            this.covered--;
+            this.uncoveredWeight += this.index.weightOf(path);
+         
+         }
+      
+         this.stamps[this.room] = this.overwrittenStamps[this.depth + 1];
+         this.visits[this.room]--;
+         this.weight -= this.index.weightOf(path);
+         this.room = this.index.across(path, this.room);
+      
+      }
+   
+      boolean isComplete()
+      {
+      
+         return this.covered == this.index.pathCount();
+      
+      }
+   
+      //No route through here can weigh less than this, since every Path not walked yet still has to be
+      int lowerBound()
+      {
+      
+         return this.weight + this.uncoveredWeight;
+      
+      }
+   
+      int weight()
+      {
+      
+         return this.weight;
+      
+      }
+   
+      int depth()
+      {
+      
+         return this.depth;
+      
+      }
+   
+      //Every Path walked so far, in order, by its id in the MapIndex
+      int[] steps()
+      {
+      
+         return Arrays.copyOf(this.stack, this.depth);
+      
+      }
+   
+      int uncoveredPaths()
+      {
+      
+         return this.index.pathCount() - this.covered;
+      
+      }
+   
+      //Fills this depth's buffer with the Paths worth trying next, in the same order findPathsFromNodeOptimized would try them
+      //Rooms visited less come first, then Paths that lead closer to something not walked yet
+      int fillCandidates()
+      {
+      
+         final int[] paths = this.candidates[this.depth];
+         final int[] keys = this.candidateKeys[this.depth];
+         int count = 0;
+      
+         for (int path : this.index.incidentPaths[this.room])
+         {
+         
+            final int end = this.index.across(path, this.room);
+         
+            if (this.traversals[path] >= MAX_TRAVERSALS || this.traversals[path] > 0 && this.stamps[end] == this.stretches[this.depth])
+            {
+            
+               continue;
+            
+            }
+         
+            final int key = this.visits[end] * (this.totalWeight + 1) + (this.traversals[path] == 0 ? 0 : this.distanceToUncovered(end));
+         
+            int position = count++;
+         
+            while (position > 0 && keys[position - 1] > key)
+            {
+            
+               paths[position] = paths[position - 1];
+               keys[position] = keys[position - 1];
+               position--;
+            
+            }
+         
+            paths[position] = path;
+            keys[position] = key;
+         
+         }
+      
+         return count;
+      
+      }
+   
+      int candidate(int position)
+      {
+      
+         return this.candidates[this.depth][position];
+      
+      }
+   
+      private int distanceToUncovered(int from)
+      {
+      
+         int closest = this.totalWeight;
+      
+         for (int path = 0; path < this.traversals.length; path++)
+         {
+         
+            if (this.traversals[path] == 0)
+            {
+            
+               closest = Math.min(closest, Math.min(this.index.distance(from, this.index.pathStarts[path]), this.index.distance(from, this.index.pathEnds[path])));
+            
+            }
+         
+         }
+      
+         return closest;
+      
+      }
+   
+      Chain toChain()
+      {
+      
+         Chain chain = Chain.empty();
+         int current = this.start;
+      
+         for (int each = 0; each < this.depth; each++)
+         {
+         
+            chain = this.index.step(chain, current, this.stack[each]);
+            current = this.index.across(this.stack[each], current);
+         
+         }
+      
+         return chain;
+      
+      }
+   
+   }
+
+   //A GameMap with its hallways squeezed down. A room with exactly 2 Paths can only be walked straight through or turned around in,
+   //and turning around inside a hallway is never better than doing it at either end, so each hallway becomes 1 Path of the same
+   //weight. The search then only branches at real junctions, and expand puts the rooms inside the hallways back afterwards
+   //Paths are told apart by their 2 rooms alone, so a hallway that would end up parallel to another Path, or loop back to where
+   //it started, keeps its first room (and its last, for a loop) instead
+   private static final class ContractedMap
+   {
+   
+      private final GameMap gameMap;
+      private final Map<Path, List<Path>> hallways;
+   
+      private ContractedMap(GameMap gameMap, Map<Path, List<Path>> hallways)
+      {
+      
+         this.gameMap = gameMap;
+         this.hallways = Map.copyOf(hallways);
+      
+      }
+   
+      public static ContractedMap of(GameMap gameMap, Node start)
+      {
+      
+         Objects.requireNonNull(gameMap);
+         Objects.requireNonNull(start);
+      
+         final Map<Node, List<Path>> incident = new HashMap<>();
+      
+         for (Path each : gameMap.gameMap())
+         {
+         
+            incident.computeIfAbsent(each.start(), node -> new ArrayList<>()).add(each);
+            incident.computeIfAbsent(each.end(), node -> new ArrayList<>()).add(each.flip());
+         
+         }
+      
+         final Predicate<Node> isJunction = node -> node.equals(start) || incident.get(node).size() != 2;
+      
+         final Set<Path> walked = new HashSet<>();
+         final List<List<Path>> runs = new ArrayList<>();
+      
+         for (Path first : gameMap.gameMap())
+         {
+         
+            for (Path each : List.of(first, first.flip()))
+            {
+            
+               if (walked.contains(each) || !isJunction.test(each.start()))
+               {
+               
+                  continue;
+               
+               }
+            
+               final List<Path> run = new ArrayList<>(List.of(each));
+            
+               while (!isJunction.test(run.get(run.size() - 1).end()))
+               {
+               
+                  final Path last = run.get(run.size() - 1);
+               
+                  for (Path next : incident.get(last.end()))
+                  {
+                  
+                     if (!next.equals(last))
+                     {
+                     
+                        run.add(next);
+                     
+                        break;
+                     
+                     }
+                  
+                  }
+               
+               }
+            
+               walked.addAll(run);
+               runs.add(run);
+            
+            }
+         
+         }
+      
+         //Plain Paths first, so no hallway gets squeezed into a Path that is already there
+         runs.sort(Comparator.comparingInt(List::size));
+      
+         final Set<Set<Node>> taken = new HashSet<>();
+         final List<Path> paths = new ArrayList<>();
+         final Map<Path, List<Path>> hallways = new HashMap<>();
+      
+         for (List<Path> run : runs)
+         {
+         
+            final Node from = run.get(0).start();
+            final Node to = run.get(run.size() - 1).end();
+            final int last = run.size() - 1;
+         
+            final List<List<Path>> pieces =
+               run.size() == 1 || !from.equals(to) && !taken.contains(Set.of(from, to))
+               ?
+               List.of(run)
+               :
+               from.equals(to)
+               ?
+               List.of(run.subList(0, 1), run.subList(1, last), run.subList(last, run.size()))
+               :
+               List.of(run.subList(0, 1), run.subList(1, run.size()))
+               ;
+         
+            for (List<Path> piece : pieces)
+            {
+            
+               final Path path =
+                  piece.size() == 1
+                  ?
+                  piece.get(0)
+                  :
+                  new Path(piece.get(0).start(), piece.get(piece.size() - 1).end(), piece.stream().mapToInt(Path::weight).sum())
+                  ;
+            
+               if (piece.size() > 1)
+               {
+               
+                  hallways.put(path, List.copyOf(piece));
+               
+               }
+            
+               taken.add(Set.of(path.start(), path.end()));
+               paths.add(path);
+            
+            }
+         
+         }
+      
+         //A GameMap needs at least 2 Paths, and a map that is nothing but 1 hallway has nothing to branch on anyway
+         if (paths.size() < 2)
+         {
+         
+            return new ContractedMap(gameMap, Map.of());
+         
+         }
+      
+         return new ContractedMap(new GameMap(paths), hallways);
+      
+      }
+   
+      public GameMap gameMap()
+      {
+      
+         return this.gameMap;
+      
+      }
+   
+      //Puts every room inside a hallway back, whichever way round the hallway was walked
+      public Chain expand(Chain chain)
+      {
+      
+         final List<Path> expanded = new ArrayList<>();
+      
+         for (Path each : chain.chain())
+         {
+         
+            final List<Path> hallway = this.hallways.get(each);
+         
+            if (hallway == null)
+            {
+            
+               expanded.add(each);
+            
+            }
+            
+            else if (hallway.get(0).start().equals(each.start()))
+            {
+            
+               expanded.addAll(hallway);
+            
+            }
+            
+            else
+            {
+            
+               for (int i = hallway.size() - 1; i >= 0; i--)
+               {
+               
+                  expanded.add(hallway.get(i).flip());
+               
+               }
+            
+            }
+         
+         }
+      
+         return new Chain(expanded);
+      
+      }
+   
+   }
+
+   //The ways a GameMap can be mirrored onto itself while the starting room stays put, each one a room for every room by MapIndex id
+   //A mirrored route weighs the same and covers the same, so when a mirror maps 1 next Path onto an earlier one, searching the
+   //later one would only find mirror images of what the earlier one finds. startRecursion only hands a mirror down to a Chain that
+   //it leaves completely in place, so once the Chain has walked off every axis of the map, there is nothing left to check
+   //Finding them all can blow up on a big map full of look-alike rooms, so this gives up after MAX_TRIES and keeps what it found
+   //Skipping a Path is still safe with only some of the mirrors, it just skips less
+   private record Symmetry(MapIndex index, List<int[]> mirrors)
+   {
+   
+      private static final int MAX_MIRRORS = 64;
+      private static final int MAX_TRIES = 50_000;
+   
+      Symmetry
+      {
+      
+         Objects.requireNonNull(index);
+         mirrors = List.copyOf(mirrors);
+      
+      }
+   
+      public static Symmetry of(MapIndex index, Node start)
+      {
+      
+         Objects.requireNonNull(index);
+         Objects.requireNonNull(start);
+      
+         final int size = index.size();
+         final int from = index.id(start);
+         final int[] colours = coloursOf(index, from);
+      
+         //Rooms in the order they get mirrored, each right after the room it was first reached from, so its mirror has to be
+         //1 of the rooms next to where that room was mirrored to
+         final int[] order = new int[size];
+         final int[] parents = new int[size];
+         final boolean[] seen = new boolean[size];
+         int ordered = 0;
+      
+         order[ordered++] = from;
+         seen[from] = true;
+      
+         for (int i = 0; i < ordered; i++)
+         {
+         
+            for (int path : index.incidentPaths[order[i]])
+            {
+            
+               final int next = index.across(path, order[i]);
+            
+               if (!seen[next])
+               {
+               
+                  seen[next] = true;
+                  parents[next] = order[i];
+                  order[ordered++] = next;
+               
+               }
+            
+            }
+         
+         }
+      
+         final int[] mirror = new int[size];
+         final boolean[] used = new boolean[size];
+         final List<int[]> mirrors = new ArrayList<>();
+      
+         Arrays.fill(mirror, -1);
+      
+         mirror[from] = from;
+         used[from] = true;
+      
+         mirror(index, colours, order, parents, 1, mirror, used, mirrors, new int[1]);
+      
+         return new Symmetry(index, mirrors);
+      
+      }
+   
+      //Colours rooms so that 2 rooms with different colours can never be mirrors of each other. The starting room gets a colour
+      //of its own, then every room is recoloured by its colour and the colours and weights around it until nothing splits anymore
+      private static int[] coloursOf(MapIndex index, int start)
+      {
+      
+         int[] colours = new int[index.size()];
+         int count = 0;
+      
+         colours[start] = 1;
+      
+         while (true)
+         {
+         
+            final Map<String, Integer> names = new HashMap<>();
+            final int[] next = new int[colours.length];
+         
+            for (int room = 0; room < colours.length; room++)
+            {
+            
+               final List<String> around = new ArrayList<>();
+            
+               for (int path : index.incidentPaths[room])
+               {
+               
+                  around.add(colours[index.across(path, room)] + ":" + index.weightOf(path));
+               
+               }
+            
+               Collections.sort(around);
+            
+               next[room] = names.computeIfAbsent(colours[room] + "|" + around, key -> names.size());
+            
+            }
+         
+            if (names.size() == count)
+            {
+            
+               return next;
+            
+            }
+         
+            colours = next;
+            count = names.size();
+         
+         }
+      
+      }
+   
+      private static void mirror(MapIndex index, int[] colours, int[] order, int[] parents, int next, int[] mirror, boolean[] used,
+                                    List<int[]> mirrors, int[] tries)
+      {
+      
+         if (next == order.length)
+         {
+         
+            if (!isIdentity(mirror) && keepsEveryPath(index, mirror) && mirrors.stream().noneMatch(each -> Arrays.equals(each, mirror)))
+            {
+            
+               mirrors.add(mirror.clone());
+            
+            }
+         
+            return;
+         
+         }
+      
+         final int room = order[next];
+         final int parent = mirror[parents[room]];
+      
+         for (int path : index.incidentPaths[parent])
+         {
+         
+            if (mirrors.size() >= MAX_MIRRORS || tries[0]++ >= MAX_TRIES)
+            {
+            
+               return;
+            
+            }
+         
+            final int candidate = index.across(path, parent);
+         
+            if (!used[candidate] && colours[candidate] == colours[room] && fits(index, order, next, mirror, room, candidate))
+            {
+            
+               mirror[room] = candidate;
+               used[candidate] = true;
+            
+               mirror(index, colours, order, parents, next + 1, mirror, used, mirrors, tries);
+            
+               mirror[room] = -1;
+               used[candidate] = false;
+            
+            }
+         
+         }
+      
+      }
+   
+      //Whether room can go to candidate, going by the cheapest Path between it and every room mirrored so far
+      //keepsEveryPath has the final say once every room is placed
+      private static boolean fits(MapIndex index, int[] order, int placed, int[] mirror, int room, int candidate)
+      {
+      
+         for (int i = 0; i < placed; i++)
+         {
+         
+            final Path original = index.directPaths[room][order[i]];
+            final Path mirrored = index.directPaths[candidate][mirror[order[i]]];
+         
+            if (original == null ? mirrored != null : mirrored == null || original.weight() != mirrored.weight())
+            {
+            
+               return false;
+            
+            }
+         
+         }
+      
+         return true;
+      
+      }
+   
+      private static boolean isIdentity(int[] mirror)
+      {
+      
+         for (int room = 0; room < mirror.length; room++)
+         {
+         
+            if (mirror[room] != room)
+            {
+            
+               return false;
+            
+            }
+         
+         }
+      
+         return true;
+      
+      }
+   
+      //Every Path, parallel ones included, has to land on a Path of the same weight between the mirrored rooms
+      private static boolean keepsEveryPath(MapIndex index, int[] mirror)
+      {
+      
+         final Map<List<Integer>, Integer> original = new HashMap<>();
+         final Map<List<Integer>, Integer> mirrored = new HashMap<>();
+      
+         for (int path = 0; path < index.pathCount(); path++)
+         {
+         
+            final int start = index.pathStarts[path];
+            final int end = index.pathEnds[path];
+            final int weight = index.weightOf(path);
+         
+            original.merge(List.of(Math.min(start, end), Math.max(start, end), weight), 1, Integer::sum);
+            mirrored.merge(List.of(Math.min(mirror[start], mirror[end]), Math.max(mirror[start], mirror[end]), weight), 1, Integer::sum);
+         
+         }
+      
+         return original.equals(mirrored);
+      
+      }
+   
+      public boolean isEmpty()
+      {
+      
+         return this.mirrors.isEmpty();
+      
+      }
+   
+      //Only the mirrors that leave path exactly where it is, same rooms and same way round
+      public Symmetry fixing(Path path)
+      {
+      
+         if (this.isEmpty())
+         {
+         
+            return this;
+         
+         }
+      
+         final int start = this.index.id(path.start());
+         final int end = this.index.id(path.end());
+      
+         return
+            new Symmetry
+            (
+               this.index,
+               this.mirrors
+                  .stream()
+                  .filter(each -> each[start] == start && each[end] == end)
+                  .toList()
+            );
+      
+      }
+   
+      //True for every Path that some mirror maps onto a Path earlier in paths
+      public boolean[] mirroredIn(List<Path> paths)
+      {
+      
+         final boolean[] mirrored = new boolean[paths.size()];
+      
+         if (this.isEmpty())
+         {
+         
+            return mirrored;
+         
+         }
+      
+         final int[] starts = new int[paths.size()];
+         final int[] ends = new int[paths.size()];
+      
+         for (int i = 0; i < paths.size(); i++)
+         {
+         
+            starts[i] = this.index.id(paths.get(i).start());
+            ends[i] = this.index.id(paths.get(i).end());
+         
+            for (int j = 0; j < i && !mirrored[i]; j++)
+            {
+            
+               for (int[] each : this.mirrors)
+               {
+               
+                  if (each[starts[i]] == starts[j] && each[ends[i]] == ends[j] && paths.get(i).weight() == paths.get(j).weight())
+                  {
+                  
+                     mirrored[i] = true;
+                  
+                     break;
+                  
+                  }
+               
+               }
+            
+            }
+         
+         }
+      
+         return mirrored;
+      
+      }
+   
+   }
+
+   //What a running search has done so far, for anyone watching it. The search only ever bumps striped counters here, and the
+   //reporter thread adds them up on its own time, so watching a search does not slow it down
+   //How much of the search is done is guessed from the top of the tree. Every branch gets an equal share of its parent, and a
+   //branch hands its share in once it finishes, or once it gets TRACKED_DEPTH deep, whichever comes first
+   private static final class SearchProgress
+   {
+   
+      private static final int TRACKED_DEPTH = 3;
+      private static final long REPORT_EVERY_MILLIS = 1_000;
+   
+      private final LongAdder nodes = new LongAdder();
+      private final LongAdder tasksStarted = new LongAdder();
+      private final LongAdder tasksFinished = new LongAdder();
+      private final DoubleAdder finishedShare = new DoubleAdder();
+      private final AtomicInteger incumbent = new AtomicInteger(Integer.MAX_VALUE);
+      private volatile int lowerBound;
+      private volatile long startNanos = System.nanoTime();
+   
+      void reset(int incumbent, int lowerBound)
+      {
+      
+         this.nodes.reset();
+         this.tasksStarted.reset();
+         this.tasksFinished.reset();
+         this.finishedShare.reset();
+         this.incumbent.set(incumbent);
+         this.lowerBound = lowerBound;
+         this.startNanos = System.nanoTime();
+      
+      }
+   
+      void visit()
+      {
+      
+         this.nodes.increment();
+      
+      }
+   
+      void improve(int weight)
+      {
+      
+         this.incumbent.accumulateAndGet(weight, Math::min);
+      
+      }
+   
+      void taskStarted()
+      {
+      
+         this.tasksStarted.increment();
+      
+      }
+   
+      void taskFinished()
+      {
+      
+         this.tasksFinished.increment();
+      
+      }
+   
+      //A piece of the search that was cut out by hand is done
+      void finished(double share)
+      {
+      
+         this.finishedShare.add(share);
+      
+      }
+   
+      long nodes()
+      {
+      
+         return this.nodes.sum();
+      
+      }
+   
+      //A branch that stopped without looking any further is done, however shallow it is
+      void finishedEarly(int depth, double share)
+      {
+      
+         if (depth <= TRACKED_DEPTH)
+         {
+         
+            this.finishedShare.add(share);
+         
+         }
+      
+      }
+   
+      //A branch that looked further only counts at TRACKED_DEPTH, anything shallower was already counted by its children
+      void finishedExploring(int depth, double share)
+      {
+      
+         if (depth == TRACKED_DEPTH)
+         {
+         
+            this.finishedShare.add(share);
+         
+         }
+      
+      }
+   
+      //One line of key=value pairs, so scripts can follow along as easily as people
+      String status(long nodesPerSecond)
+      {
+      
+         final int incumbent = this.incumbent.get();
+         final int lowerBound = this.lowerBound;
+      
+         return
+            "PROGRESS"
+               + " elapsedMillis=" + (System.nanoTime() - this.startNanos) / 1_000_000
+               + " incumbent=" + (incumbent == Integer.MAX_VALUE ? "none" : incumbent)
+               + " lowerBound=" + lowerBound
+               + " gap=" + (incumbent == Integer.MAX_VALUE ? "none" : incumbent - lowerBound)
+               + " nodes=" + this.nodes.sum()
+               + " nodesPerSecond=" + nodesPerSecond
+               + " activeTasks=" + (this.tasksStarted.sum() - this.tasksFinished.sum())
+               + " rootFraction=" + String.format("%.4f", Math.min(1.0, this.finishedShare.sum()))
+               ;
+      
+      }
+   
+      //Prints a status line every REPORT_EVERY_MILLIS until closed, and one last line when closed
+      Reporter startReporting(PrintStream out)
+      {
+      
+         return new Reporter(out);
+      
+      }
+   
+      final class Reporter implements AutoCloseable
+      {
+      
+         private final PrintStream out;
+         private final Thread thread;
+      
+         private Reporter(PrintStream out)
+         {
+         
+            this.out = Objects.requireNonNull(out);
+            this.thread = Thread.ofPlatform().daemon().name("progress-reporter").start(this::report);
+         
+         }
+      
+         private void report()
+         {
+         
+            long lastNodes = SearchProgress.this.nodes.sum();
+            long lastNanos = System.nanoTime();
+         
+            while (!Thread.currentThread().isInterrupted())
+            {
+            
+               try
+               {
+               
+                  Thread.sleep(REPORT_EVERY_MILLIS);
+               
+               }
+               
+               catch (InterruptedException e)
+               {
+               
+                  return;
+               
+               }
+            
+               final long nodes = SearchProgress.this.nodes.sum();
+               final long nanos = System.nanoTime();
+            
+               this.out.println(SearchProgress.this.status((nodes - lastNodes) * 1_000_000_000L / Math.max(1, nanos - lastNanos)));
+            
+               lastNodes = nodes;
+               lastNanos = nanos;
+            
+            }
+         
+         }
+      
+         @Override
+         public void close()
+         {
+         
+            this.thread.interrupt();
+         
+            try
+            {
+            
+               this.thread.join();
+            
+            }
+            
+            catch (InterruptedException e)
+            {
+            
+               Thread.currentThread().interrupt();
+            
+            }
+         
+            final long elapsedNanos = Math.max(1, System.nanoTime() - SearchProgress.this.startNanos);
+         
+            this.out.println(SearchProgress.this.status(SearchProgress.this.nodes.sum() * 1_000_000_000L / elapsedNanos));
+         
+         }
+      
+      }
+   
+   }
+
+   //Large neighbourhood search for maps too big for any exact engine to finish
+   //A route covering every Path walks each one once, plus a shortest route between partners for every room that would otherwise
+   //be left with an odd number of Paths, and ends on the 1 room with no partner. So the only thing left to get right is the pairing
+   //Each worker tears out the pairs around a random room, closest rooms first, and pairs the freed rooms up again as cheaply as
+   //they can be, keeping the result whenever it is no heavier. Workers share the best pairing, and one that has gone STALL_LIMIT
+   //tries without improving picks the shared best back up. Everything stops at the deadline, or once the best route weighs the
+   //same as the lower bound, since nothing can beat that
+   private static final class LargeNeighbourhoodSearch
+   {
+   
+      private static final int MIN_FREED = 4;
+      private static final int MAX_FREED = 12;
+      private static final int NEIGHBOURS = 4 * MAX_FREED;
+      private static final int STALL_LIMIT = 2_000;
+   
+      private final MapIndex index;
+      private final long deadlineNanos;
+      private final int lowerBound;
+      private final int[] needy;
+      private final int[][] nearest;
+      private int[] bestPartners;
+      private int bestWeight;
+      private volatile boolean done;
+   
+      LargeNeighbourhoodSearch(MapIndex index, int start, long deadlineNanos)
+      {
+      
+         Objects.requireNonNull(index);
+      
+         this.index = index;
+         this.deadlineNanos = deadlineNanos;
+         this.lowerBound = index.openWalkLowerBound(start, index.oddRooms());
+         this.bestPartners = index.greedyPartners(start);
+         this.bestWeight = index.totalWeight() + index.pairingWeight(this.bestPartners);
+         this.done = this.bestWeight <= this.lowerBound;
+         this.needy = IntStream.range(0, index.size()).filter(room -> this.bestPartners[room] >= 0).toArray();
+         this.nearest = new int[this.needy.length][];
+      
+         for (int i = 0; i < this.needy.length; i++)
+         {
+         
+            final int from = this.needy[i];
+         
+            this.nearest[i] =
+               IntStream
+                  .range(0, this.needy.length)
+                  .boxed()
+                  .sorted(Comparator.comparingInt(j -> index.distance(from, this.needy[j])))
+                  .limit(NEIGHBOURS)
+                  .mapToInt(Integer::intValue)
+                  .toArray();
+         
+         }
+      
+      }
+   
+      int lowerBound()
+      {
+      
+         return this.lowerBound;
+      
+      }
+   
+      synchronized int bestWeight()
+      {
+      
+         return this.bestWeight;
+      
+      }
+   
+      synchronized int[] bestPartners()
+      {
+      
+         return this.bestPartners.clone();
+      
+      }
+   
+      private synchronized void publish(int[] partners, int weight, SearchProgress progress)
+      {
+      
+         if (weight < this.bestWeight)
+         {
+         
+            this.bestWeight = weight;
+            this.bestPartners = partners.clone();
+            this.done = weight <= this.lowerBound;
+         
+            progress.improve(weight);
+         
+         }
+      
+      }
+   
+      void search(long seed, SearchProgress progress)
+      {
+      
+         final Random random = new Random(seed);
+         final int[] freed = new int[MAX_FREED];
+         final boolean[] isFreed = new boolean[this.index.size()];
+         final int[] pairings = new int[1 << MAX_FREED];
+         final int[] choices = new int[1 << MAX_FREED];
+      
+         int[] partners = this.bestPartners();
+         int weight = this.bestWeight();
+         int stalled = 0;
+      
+         while (!this.done && System.nanoTime() < this.deadlineNanos)
+         {
+         
+            progress.visit();
+         
+            final int[] around = this.nearest[random.nextInt(this.needy.length)];
+            final int target = MIN_FREED + random.nextInt(MAX_FREED - MIN_FREED + 1);
+            int count = 0;
+            int end = -1;
+            int oldWeight = 0;
+         
+            for (int i = 0; i < around.length && count < target; i++)
+            {
+            
+               final int room = this.needy[around[i]];
+               final int partner = partners[room];
+            
+               if (isFreed[room] || count + (partner == room ? 1 : 2) > MAX_FREED)
+               {
+               
+                  continue;
+               
+               }
+            
+               isFreed[room] = true;
+               freed[count++] = room;
+            
+               if (partner == room)
+               {
+               
+                  end = count - 1;
+               
+               }
+               
+               else
+               {
+               
+                  isFreed[partner] = true;
+                  freed[count++] = partner;
+                  oldWeight += this.index.distance(room, partner);
+               
+               }
+            
+            }
+         
+            final int full = (1 << count) - 1;
+            int bestMask = full;
+            int newWeight;
+         
+            this.pairUp(freed, count, pairings, choices);
+         
+            //The end was torn out too, so any 1 of the freed rooms can take over as the end
+            if (end >= 0)
+            {
+            
+               newWeight = MapIndex.UNREACHABLE;
+            
+               for (int each = 0; each < count; each++)
+               {
+               
+                  if (pairings[full & ~(1 << each)] < newWeight)
+                  {
+                  
+                     newWeight = pairings[full & ~(1 << each)];
+                     bestMask = full & ~(1 << each);
+                     end = each;
+                  
+                  }
+               
+               }
+            
+            }
+            
+            else
+            {
+            
+               newWeight = pairings[full];
+            
+            }
+         
+            if (newWeight <= oldWeight)
+            {
+            
+               if (end >= 0)
+               {
+               
+                  partners[freed[end]] = freed[end];
+               
+               }
+            
+               for (int mask = bestMask; mask != 0; mask &= ~(1 << Integer.numberOfTrailingZeros(mask)) & ~(1 << choices[mask]))
+               {
+               
+                  final int first = freed[Integer.numberOfTrailingZeros(mask)];
+                  final int second = freed[choices[mask]];
+               
+                  partners[first] = second;
+                  partners[second] = first;
+               
+               }
+            
+               weight += newWeight - oldWeight;
+            
+            }
+         
+            for (int i = 0; i < count; i++)
+            {
+            
+               isFreed[freed[i]] = false;
+            
+            }
+         
+            if (newWeight < oldWeight)
+            {
+            
+               stalled = 0;
+            
+               this.publish(partners, weight, progress);
+            
+            }
+            
+            else if (++stalled >= STALL_LIMIT)
+            {
+            
+               stalled = 0;
+               partners = this.bestPartners();
+               weight = this.bestWeight();
+            
+            }
+         
+         }
+      
+      }
+   
+      //Cheapest way to pair up every set of freed rooms with an even count, choices[mask] being who the lowest room pairs with
+      private void pairUp(int[] freed, int count, int[] pairings, int[] choices)
+      {
+      
+         pairings[0] = 0;
+      
+         for (int mask = 1; mask < 1 << count; mask++)
+         {
+         
+            pairings[mask] = MapIndex.UNREACHABLE;
+         
+            if (Integer.bitCount(mask) % 2 == 1)
+            {
+            
+               continue;
+            
+            }
+         
+            final int first = Integer.numberOfTrailingZeros(mask);
+         
+            for (int second = first + 1; second < count; second++)
+            {
+            
+               if ((mask & (1 << second)) != 0)
+               {
+               
+                  final int weight = pairings[mask & ~(1 << first) & ~(1 << second)] + this.index.distance(freed[first], freed[second]);
+               
+                  if (weight < pairings[mask])
+                  {
+                  
+                     pairings[mask] = weight;
+                     choices[mask] = second;
+                  
+                  }
+               
+               }
+            
+            }
+         
+         }
+      
+      }
+   
+   }
+
+   //How many cheapest routes there are, and a way to draw 1 of them uniformly at random, without ever holding more than 1 of them
+   //A route is the sequence of Paths walked from the start, so the same Paths walked in a different order is a different route
+   //count(state) is how many ways there are to finish from the state's room, having walked the Paths in walked, spending exactly left
+   //Every Path weighs at least 1 and optimum is the cheapest a route can be, so a route ends on the very step that walks the last
+   //new Path, which is what keeps every count finite
+   private static final class OptimalRouteCounter
+   {
+   
+      private record State(int room, int left, BitSet walked)
+      {
+      
+      }
+   
+      private final MapIndex index;
+      private final int start;
+      private final int optimum;
+      private final Map<State, BigInteger> counts = new HashMap<>();
+   
+      OptimalRouteCounter(MapIndex index, int start, int optimum)
+      {
+      
+         Objects.requireNonNull(index);
+      
+         //A Path weighing 0 could be walked back and forth forever without spending anything, so there would be no end to count
+         for (int path = 0; path < index.pathCount(); path++)
+         {
+         
+            if (index.weightOf(path) < 1)
+            {
+            
+               throw new IllegalArgumentException("Can only count routes when every Path weighs at least 1! path = " + index.paths.get(path));
+            
+            }
+         
+         }
+      
+         this.index = index;
+         this.start = start;
+         this.optimum = optimum;
+      
+      }
+   
+      BigInteger count()
+      {
+      
+         return this.count(this.first());
+      
+      }
+   
+      int states()
+      {
+      
+         return this.counts.size();
+      
+      }
+   
+      private State first()
+      {
+      
+         return new State(this.start, this.optimum, new BitSet());
+      
+      }
+   
+      private BigInteger count(State state)
+      {
+      
+         if (state.walked().cardinality() == this.index.pathCount())
+         {
+         
+            return
+               state.left() == 0
+               ?
+               BigInteger.ONE
+               :
+               BigInteger.ZERO
+               ;
+         
+         }
+      
+         if (state.left() < this.neededFrom(state))
+         {
+         
+            return BigInteger.ZERO;
+         
+         }
+      
+         final BigInteger known = this.counts.get(state);
+      
+         if (known != null)
+         {
+         
+            return known;
+         
+         }
+      
+         BigInteger total = BigInteger.ZERO;
+      
+         for (int path : this.index.incidentPaths[state.room()])
+         {
+         
+            if (this.index.weightOf(path) <= state.left())
+            {
+            
+               total = total.add(this.count(this.child(state, path)));
+            
+            }
+         
+         }
+      
+         this.counts.put(state, total);
+      
+         return total;
+      
+      }
+   
+      private State child(State state, int path)
+      {
+      
+         final BitSet walked = (BitSet) state.walked().clone();
+      
+         walked.set(path);
+      
+         return new State(this.index.across(path, state.room()), state.left() - this.index.weightOf(path), walked);
+      
+      }
+   
+      //Every Path not walked yet still has to be, and getting to the closest of them costs at least the distance there
+      private int neededFrom(State state)
+      {
+      
+         final BitSet walked = state.walked();
+         int uncovered = 0;
+         int closest = MapIndex.UNREACHABLE;
+      
+         for (int path = walked.nextClearBit(0); path < this.index.pathCount(); path = walked.nextClearBit(path + 1))
+         {
+         
+            uncovered += this.index.weightOf(path);
+            closest =
+               Math.min
+               (
+                  closest,
+                  Math.min(this.index.distance(state.room(), this.index.pathStarts[path]), this.index.distance(state.room(), this.index.pathEnds[path]))
+               );
+         
+         }
+      
+         return uncovered + closest;
+      
+      }
+   
+      //Each step is picked with odds in proportion to how many cheapest routes go through it, so every cheapest route is equally likely
+      Chain sample(Random random)
+      {
+      
+         Objects.requireNonNull(random);
+      
+         State state = this.first();
+         Chain chain = Chain.empty();
+      
+         while (state.walked().cardinality() < this.index.pathCount())
+         {
+         
+            BigInteger pick = uniformBelow(this.count(state), random);
+         
+            for (int path : this.index.incidentPaths[state.room()])
+            {
+            
+               if (this.index.weightOf(path) > state.left())
+               {
+               
+                  continue;
+               
+               }
+            
+               final State child = this.child(state, path);
+               final BigInteger ways = this.count(child);
+            
+               if (pick.compareTo(ways) < 0)
+               {
+               
+                  chain = this.index.step(chain, state.room(), path);
+                  state = child;
+               
+                  break;
+               
+               }
+            
+               pick = pick.subtract(ways);
+            
+            }
+         
+         }
+      
+         return chain;
+      
+      }
+   
+      private static BigInteger uniformBelow(BigInteger bound, Random random)
+      {
+      
+         if (bound.signum() <= 0)
+         {
+         
+            throw new IllegalArgumentException("Nothing to pick from! bound = " + bound);
+         
+         }
+      
+         BigInteger pick;
+      
+         do
+         {
+         
+            pick = new BigInteger(bound.bitLength(), random);
+         
+         }
+         while (pick.compareTo(bound) >= 0);
+      
+         return pick;
+      
+      }
+   
+   }
+
+   //States for a best-first search, kept outside the Java heap so the GC never has to look at them
+   //A state is 1 fixed size record: the room it is in, its cost so far, the weight it has left to cover, the Path it came along, the
+   //record it came from, the next record waiting at the same priority, and 1 bit per Path saying whether it was walked yet
+   //Records go in CHUNK_BYTES chunks of direct memory until budgetBytes is used up, and in chunks of a memory mapped temporary
+   //file after that, so how many states fit is up to the disk and not the heap. Records waiting to be expanded are chained
+   //together per priority, and a hash table of record numbers, kept in chunks the same way, remembers which states were expanded
+   private static final class OffHeapFrontier implements AutoCloseable
+   {
+   
+      private static final int CHUNK_BYTES = 1 << 24;
+      private static final int FIRST_TABLE_SLOTS = 1 << 16;
+      private static final long NONE = -1;
+   
+      private static final int ROOM = 0;
+      private static final int COST = 4;
+      private static final int UNCOVERED = 8;
+      private static final int PATH = 12;
+      private static final int PARENT = 16;
+      private static final int NEXT = 24;
+      private static final int COVERAGE = 32;
+   
+      private final int words;
+      private final int recordBytes;
+      private final int recordsPerChunk;
+      private final long budgetBytes;
+      private final List<ByteBuffer> records = new ArrayList<>();
+      private long recordCount;
+      private long[] buckets = new long[0];
+      private int lowestBucket;
+      private List<ByteBuffer> table = new ArrayList<>();
+      private long tableSlots;
+      private long tableUsed;
+      private long directBytes;
+      private FileChannel spill;
+      private long spilledBytes;
+   
+      OffHeapFrontier(int pathCount, long budgetBytes)
+      {
+      
+         if (budgetBytes < 0)
+         {
+         
+            throw new IllegalArgumentException("Budget cannot be negative! budgetBytes = " + budgetBytes);
+         
+         }
+      
+         this.words = (pathCount + Long.SIZE - 1) / Long.SIZE;
+         this.recordBytes = COVERAGE + Long.BYTES * this.words;
+         this.recordsPerChunk = CHUNK_BYTES / this.recordBytes;
+         this.budgetBytes = budgetBytes;
+         this.table = this.newTable(FIRST_TABLE_SLOTS);
+         this.tableSlots = FIRST_TABLE_SLOTS;
+      
+      }
+   
+      //Direct memory while the budget lasts, then the next stretch of the spill file
+      private ByteBuffer allocate(int bytes)
+      {
+      
+         if (this.directBytes + bytes <= this.budgetBytes)
+         {
+         
+            this.directBytes += bytes;
+         
+            return ByteBuffer.allocateDirect(bytes);
+         
+         }
+      
+         try
+         {
+         
+            if (this.spill == null)
+            {
+            
+               this.spill =
+                  FileChannel.open
+                  (
+                     Files.createTempFile("frontier", ".bin"),
+                     StandardOpenOption.READ,
+                     StandardOpenOption.WRITE,
+                     StandardOpenOption.DELETE_ON_CLOSE
+                  );
+            
+            }
+         
+            final ByteBuffer mapped = this.spill.map(FileChannel.MapMode.READ_WRITE, this.spilledBytes, bytes);
+         
+            this.spilledBytes += bytes;
+         
+            return mapped;
+         
+         }
+         
+         catch (IOException e)
+         {
+         
+            throw new UncheckedIOException(e);
+         
+         }
+      
+      }
+   
+      long add(int room, int cost, int uncovered, int path, long parent, long[] coverage)
+      {
+      
+         if (this.recordCount == (long) this.records.size() * this.recordsPerChunk)
+         {
+         
+            this.records.add(this.allocate(this.recordsPerChunk * this.recordBytes));
+         
+         }
+      
+         final long record = this.recordCount++;
+         final ByteBuffer chunk = this.chunkOf(record);
+         final int offset = this.offsetOf(record);
+      
+         chunk.putInt(offset + ROOM, room);
+         chunk.putInt(offset + COST, cost);
+         chunk.putInt(offset + UNCOVERED, uncovered);
+         chunk.putInt(offset + PATH, path);
+         chunk.putLong(offset + PARENT, parent);
+         chunk.putLong(offset + NEXT, NONE);
+      
+         for (int word = 0; word < this.words; word++)
+         {
+         
+            chunk.putLong(offset + COVERAGE + word * Long.BYTES, coverage[word]);
+         
+         }
+      
+         return record;
+      
+      }
+   
+      private ByteBuffer chunkOf(long record)
+      {
+      
+         return this.records.get((int) (record / this.recordsPerChunk));
+      
+      }
+   
+      private int offsetOf(long record)
+      {
+      
+         return (int) (record % this.recordsPerChunk) * this.recordBytes;
+      
+      }
+   
+      int room(long record)
+      {
+      
+         return this.chunkOf(record).getInt(this.offsetOf(record) + ROOM);
+      
+      }
+   
+      int cost(long record)
+      {
+      
+         return this.chunkOf(record).getInt(this.offsetOf(record) + COST);
+      
+      }
+   
+      int uncovered(long record)
+      {
+      
+         return this.chunkOf(record).getInt(this.offsetOf(record) + UNCOVERED);
+      
+      }
+   
+      int path(long record)
+      {
+      
+         return this.chunkOf(record).getInt(this.offsetOf(record) + PATH);
+      
+      }
+   
+      long parent(long record)
+      {
+      
+         return this.chunkOf(record).getLong(this.offsetOf(record) + PARENT);
+      
+      }
+   
+      void coverage(long record, long[] into)
+      {
+      
+         final ByteBuffer chunk = this.chunkOf(record);
+         final int offset = this.offsetOf(record);
+      
+         for (int word = 0; word < this.words; word++)
+         {
+         
+            into[word] = chunk.getLong(offset + COVERAGE + word * Long.BYTES);
+         
+         }
+      
+      }
+   
+      //Waiting records are kept in 1 chain per priority, newest first, threaded through the records themselves
+      void push(long record, int priority)
+      {
+      
+         if (priority >= this.buckets.length)
+         {
+         
+            final int oldLength = this.buckets.length;
+         
+            this.buckets = Arrays.copyOf(this.buckets, Math.max(priority + 1, oldLength * 2));
+         
+            Arrays.fill(this.buckets, oldLength, this.buckets.length, NONE);
+         
+         }
+      
+         this.chunkOf(record).putLong(this.offsetOf(record) + NEXT, this.buckets[priority]);
+         this.buckets[priority] = record;
+         this.lowestBucket = Math.min(this.lowestBucket, priority);
+      
+      }
+   
+      //The waiting record with the lowest priority, or NONE once nothing is left
+      long poll()
+      {
+      
+         while (this.lowestBucket < this.buckets.length && this.buckets[this.lowestBucket] == NONE)
+         {
+         
+            this.lowestBucket++;
+         
+         }
+      
+         if (this.lowestBucket == this.buckets.length)
+         {
+         
+            return NONE;
+         
+         }
+      
+         final long record = this.buckets[this.lowestBucket];
+      
+         this.buckets[this.lowestBucket] = this.chunkOf(record).getLong(this.offsetOf(record) + NEXT);
+      
+         return record;
+      
+      }
+   
+      //False if a record in the same room with the same coverage was already expanded, which makes this one pointless
+      boolean markExpanded(long record)
+      {
+      
+         if (2 * (this.tableUsed + 1) > this.tableSlots)
+         {
+         
+            this.growTable();
+         
+         }
+      
+         long slot = this.hash(record) & (this.tableSlots - 1);
+      
+         for (long entry = this.slot(slot); entry != 0; entry = this.slot(slot))
+         {
+         
+            if (this.sameState(entry - 1, record))
+            {
+            
+               return false;
+            
+            }
+         
+            slot = (slot + 1) & (this.tableSlots - 1);
+         
+         }
+      
+         this.setSlot(this.table, slot, record + 1);
+         this.tableUsed++;
+      
+         return true;
+      
+      }
+   
+      private long hash(long record)
+      {
+      
+         final ByteBuffer chunk = this.chunkOf(record);
+         final int offset = this.offsetOf(record);
+      
+         long hash = chunk.getInt(offset + ROOM);
+      
+         for (int word = 0; word < this.words; word++)
+         {
+         
+            hash = hash * 0x9E3779B97F4A7C15L + chunk.getLong(offset + COVERAGE + word * Long.BYTES);
+         
+         }
+      
+         return hash ^ (hash >>> 29);
+      
+      }
+   
+      private boolean sameState(long first, long second)
+      {
+      
+         final ByteBuffer firstChunk = this.chunkOf(first);
+         final ByteBuffer secondChunk = this.chunkOf(second);
+         final int firstOffset = this.offsetOf(first);
+         final int secondOffset = this.offsetOf(second);
+      
+         if (firstChunk.getInt(firstOffset + ROOM) != secondChunk.getInt(secondOffset + ROOM))
+         {
+         
+            return false;
+         
+         }
+      
+         for (int word = 0; word < this.words; word++)
+         {
+         
+            if (firstChunk.getLong(firstOffset + COVERAGE + word * Long.BYTES) != secondChunk.getLong(secondOffset + COVERAGE + word * Long.BYTES))
+            {
+            
+               return false;
+            
+            }
+         
+         }
+      
+         return true;
+      
+      }
+   
+      private List<ByteBuffer> newTable(long slots)
+      {
+      
+         final List<ByteBuffer> chunks = new ArrayList<>();
+      
+         for (long bytes = slots * Long.BYTES; bytes > 0; bytes -= CHUNK_BYTES)
+         {
+         
+            chunks.add(this.allocate((int) Math.min(bytes, CHUNK_BYTES)));
+         
+         }
+      
+         return chunks;
+      
+      }
+   
+      private long slot(long slot)
+      {
+      
+         return this.table.get((int) (slot * Long.BYTES / CHUNK_BYTES)).getLong((int) (slot * Long.BYTES % CHUNK_BYTES));
+      
+      }
+   
+      private void setSlot(List<ByteBuffer> table, long slot, long value)
+      {
+      
+         table.get((int) (slot * Long.BYTES / CHUNK_BYTES)).putLong((int) (slot * Long.BYTES % CHUNK_BYTES), value);
+      
+      }
+   
+      //Twice the slots, with every expanded record hashed in again. The old table's memory is not handed back to the budget
+      private void growTable()
+      {
+      
+         final List<ByteBuffer> oldTable = this.table;
+         final long oldSlots = this.tableSlots;
+      
+         this.tableSlots = oldSlots * 2;
+         this.table = this.newTable(this.tableSlots);
+      
+         for (long each = 0; each < oldSlots; each++)
+         {
+         
+            final long entry = oldTable.get((int) (each * Long.BYTES / CHUNK_BYTES)).getLong((int) (each * Long.BYTES % CHUNK_BYTES));
+         
+            if (entry != 0)
+            {
+            
+               long slot = this.hash(entry - 1) & (this.tableSlots - 1);
+            
+               while (this.slot(slot) != 0)
+               {
+               
+                  slot = (slot + 1) & (this.tableSlots - 1);
+               
+               }
+            
+               this.setSlot(this.table, slot, entry);
+            
+            }
+         
+         }
+      
+      }
+   
+      @Override
+      public void close()
+      {
+      
+         if (this.spill != null)
+         {
+         
+            try
+            {
+            
+               this.spill.close();
+            
+            }
+            
+            catch (IOException e)
+            {
+            
+               throw new UncheckedIOException(e);
+            
+            }
+         
+         }
+      
+      }
+   
+   }
+
+   //A route along with the weight no route can get below. They are equal when the route is known to be optimal
+   private record BoundedChain(Chain chain, int lowerBound)
+   {
+   
+      public int gap()
+      {
+      
+         return this.chain.weight() - this.lowerBound;
+      
+      }
+   
+   }
+
+   private record PathFinderInputs(String directions, String node)
+   {
+   
+      PathFinderInputs
+      {
+      
+         Objects.requireNonNull(directions);
+         Objects.requireNonNull(node);
+      
+      }
+   
+      private PathFinderInputs(String input)
+      {
+      
+         this
+               (
+               input
+                  .substring(input.indexOf('_') + 4, input.lastIndexOf('_'))
+                  ,
+               input
+                  .substring(input.lastIndexOf('_') + 1, input.lastIndexOf('.'))
+               );
+      
+      }
+   
+      //Maps too big to fit in a file name go in a .txt file named the same way, minus the directions, like 20990201_xl_hall1.txt
+      //Inside is 1 Path per line, and blank lines are fine
+      public PathFinderInputs(File file)
+      {
+      
+         this(directionsIn(PathFinder.validateFileName(file)), startIn(file));
+      
+      }
+   
+      private static String directionsIn(File file)
+      {
+      
+         final String name = file.getName();
+      
+         if (!name.endsWith(".txt"))
+         {
+         
+            //Skips the date and the size, like 20240101_sm_, so a name with nothing left before the start has no directions
+            final int from = name.indexOf('_') + 4;
+            final int to = name.lastIndexOf('_');
+         
+            if (from > to)
+            {
+            
+               throw new IllegalArgumentException("Filename has no directions in it! file = " + file);
+            
+            }
+         
+            return name.substring(from, to);
+         
+         }
+      
+         try
+         {
+         
+            return
+               Files
+                  .readAllLines(file.toPath())
+                  .stream()
+                  .map(String::strip)
+                  .filter(line -> !line.isEmpty())
+                  .collect(Collectors.joining("_"))
+                  ;
+         
+         }
+         
+         catch (IOException e)
+         {
+         
+            throw new UncheckedIOException(e);
+         
+         }
+      
+      }
+   
+      private static String startIn(File file)
+      {
+      
+         final String name = file.getName();
+      
+         if (name.lastIndexOf('.') < name.lastIndexOf('_'))
+         {
+         
+            throw new IllegalArgumentException("Filename has no extension after the start! file = " + file);
+         
+         }
+      
+         return name.substring(name.lastIndexOf('_') + 1, name.lastIndexOf('.'));
+      
+      }
+   
+      public GameMap generateGameMap()
+      {
+      
+         final String[] splitDirections = this.directions.split("_");
+         final String directionsWithNewLines = String.join("\n", splitDirections);
+      
+         return new GameMap(directionsWithNewLines);
+      
+      }
+   
+      public int length()
+      {
+      
+         return directions.length();
+      
+      }
+   
+   }
+
+   //Keeps the best routes found so far, worst one on top, so the K-th best weight is always one peek away
+   //Searches read cutoff() on every expansion, so it is kept in a volatile instead of behind the lock
+   //A collector that keeps ties still lets in routes as heavy as its K-th best, and lets Chain.comparator pick which of them
+   //stay. Otherwise the first ones found would win, and under the parallel fork that depends on which thread got there first
+   private static final class RouteCollector
+   {
+   
+      private static final int NO_TOLERANCE = -1;
+   
+      private final PriorityQueue<Chain> heap = new PriorityQueue<>(Chain.comparator.reversed());
+      private final int limit;
+      private final int tolerance;
+      private final boolean keepsTies;
+      private final Consumer<Chain> onAccept;
+      private int bestWeight = Integer.MAX_VALUE;
+      private volatile int cutoff;
+   
+      private RouteCollector(int limit, int tolerance, boolean keepsTies, int initialCutoff, Consumer<Chain> onAccept)
+      {
+      
+         if (limit < 1)
+         {
+         
+            throw new IllegalArgumentException("Must collect at least 1 route! limit = " + limit);
+         
+         }
+      
+         this.limit = limit;
+         this.tolerance = tolerance;
+         this.keepsTies = keepsTies;
+         this.cutoff = initialCutoff;
+         this.onAccept = Objects.requireNonNull(onAccept);
+      
+      }
+   
+      //The K cheapest routes, ties at the K-th weight settled by Chain.comparator, so the same map always gives the same K
+      public static RouteCollector cheapest(int k, GameMap gameMap)
+      {
+      
+         return new RouteCollector(k, NO_TOLERANCE, true, gameMap.maxPossibleTraversalWeight() + 1, chain -> {});
+      
+      }
+   
+      //Just 1 cheapest route, for the searches that only want the weight. Ties get pruned, since exploring every other route
+      //just as cheap would cost far more than it is worth, so which of them comes back can change from run to run
+      public static RouteCollector best(GameMap gameMap)
+      {
+      
+         return new RouteCollector(1, NO_TOLERANCE, false, gameMap.maxPossibleTraversalWeight() + 1, chain -> {});
+      
+      }
+   
+      public static RouteCollector withinTolerance(int tolerance, GameMap gameMap)
+      {
+      
+         if (tolerance < 0)
+         {
+         
+            throw new IllegalArgumentException("Tolerance cannot be negative! tolerance = " + tolerance);
+         
+         }
+      
+         return new RouteCollector(Integer.MAX_VALUE, tolerance, false, gameMap.maxPossibleTraversalWeight() + 1, chain -> {});
+      
+      }
+   
+      //Keeps only the single best route, and only if it beats bound. Every improvement is handed to onImprovement as it happens
+      public static RouteCollector incumbent(int bound, Consumer<Chain> onImprovement)
+      {
+      
+         return new RouteCollector(1, NO_TOLERANCE, false, bound, onImprovement);
+      
+      }
+   
+      //Any route weighing this much or more will be rejected, so branches that cannot get below it can be pruned
+      public int cutoff()
+      {
+      
+         return this.cutoff;
+      
+      }
+   
+      //Lowers the cutoff because someone else already found a route this good
+      public synchronized void tighten(int cutoff)
+      {
+      
+         if (cutoff < this.cutoff)
+         {
+         
+            this.cutoff = cutoff;
+         
+         }
+      
+      }
+   
+      public synchronized void offer(Chain chain)
+      {
+      
+         final int weight = chain.weight();
+      
+         if (weight >= this.cutoff)
+         {
+         
+            return;
+         
+         }
+      
+         this.heap.add(chain);
+      
+         if (this.tolerance == NO_TOLERANCE)
+         {
+         
+            if (this.heap.size() > this.limit)
+            {
+            
+               this.heap.poll();
+            
+            }
+         
+            if (this.heap.size() == this.limit)
+            {
+            
+               this.cutoff =
+                  this.keepsTies
+                  ?
+                  this.heap.peek().weight() + 1
+                  :
+                  this.heap.peek().weight()
+                  ;
+            
+            }
+         
+         }
+         
+         else
+         {
+         
+            this.bestWeight = Math.min(this.bestWeight, weight);
+         
+            while (this.heap.peek().weight() > this.bestWeight + this.tolerance)
+            {
+            
+               this.heap.poll();
+            
+            }
+         
+            this.cutoff = this.bestWeight + this.tolerance + 1;
+         
+         }
+      
+         this.onAccept.accept(chain);
+      
+      }
+   
+      public synchronized List<Chain> results()
+      {
+      
+         final List<Chain> results = new ArrayList<>(this.heap);
+      
+         results.sort(Chain.comparator);
+      
+         return List.copyOf(results);
+      
+      }
+   
+   }
+
+   //The 3 things a route can cost. Lower is better for all of them
+   private record RouteCosts(int weight, int reentries, int maxRepeats)
+   {
+   
+      public static RouteCosts of(Chain chain, Node start)
+      {
+      
+         return new RouteCosts(chain.weight(), chain.countOfReentries(start), chain.maxRepeatsOfAnyPath());
+      
+      }
+   
+      //No worse anywhere, so anything this one can become is no better than other
+      public boolean isAtLeastAsGoodAs(RouteCosts other)
+      {
+      
+         return
+            this.weight <= other.weight
+            &&
+            this.reentries <= other.reentries
+            &&
+            this.maxRepeats <= other.maxRepeats
+            ;
+      
+      }
+   
+      public String toString()
+      {
+      
+         return "weight = " + this.weight + ", reentries = " + this.reentries + ", max repeats = " + this.maxRepeats;
+      
+      }
+   
+   }
+
+   //Every route found so far that no other route beats on all 3 RouteCosts, one route per distinct set of costs
+   //Only routes within maxExtraWeight of the lightest one are kept, which is what keeps the search close to the single objective one
+   //The entries live in a CopyOnWriteArrayList, so the search reads them on every expansion without taking the lock
+   private static final class ParetoFront
+   {
+   
+      private record Entry(RouteCosts costs, Chain chain) {}
+   
+      private final CopyOnWriteArrayList<Entry> entries = new CopyOnWriteArrayList<>();
+      private final int maxExtraWeight;
+      private volatile int bestWeight = Integer.MAX_VALUE;
+   
+      private ParetoFront(int maxExtraWeight)
+      {
+      
+         if (maxExtraWeight < 0)
+         {
+         
+            throw new IllegalArgumentException("Extra weight cannot be negative! maxExtraWeight = " + maxExtraWeight);
+         
+         }
+      
+         this.maxExtraWeight = maxExtraWeight;
+      
+      }
+   
+      //Whether some route with at least these costs could still make it onto the front
+      public boolean admits(RouteCosts lowerBound)
+      {
+      
+         if ((long) lowerBound.weight() > (long) this.bestWeight + this.maxExtraWeight)
+         {
+         
+            return false;
+         
+         }
+      
+         for (Entry each : this.entries)
+         {
+         
+            if (each.costs().isAtLeastAsGoodAs(lowerBound))
+            {
+            
+               return false;
+            
+            }
+         
+         }
+      
+         return true;
+      
+      }
+   
+      public synchronized void offer(Chain chain, Node start)
+      {
+      
+         final RouteCosts costs = RouteCosts.of(chain, start);
+      
+         if (!this.admits(costs))
+         {
+         
+            return;
+         
+         }
+      
+         this.bestWeight = Math.min(this.bestWeight, costs.weight());
+      
+         this.entries
+            .removeIf
+            (
+               each ->
+                  costs.isAtLeastAsGoodAs(each.costs())
+                  ||
+                  each.costs().weight() > this.bestWeight + this.maxExtraWeight
+            );
+      
+         this.entries.add(new Entry(costs, chain));
+      
+      }
+   
+      public List<Entry> results()
+      {
+      
+         final List<Entry> results = new ArrayList<>(this.entries);
+      
+         results.sort(Comparator.comparing(Entry::chain, Chain.comparator));
+      
+         return List.copyOf(results);
+      
+      }
+   
+   }
+
+   //How the search spreads its work across threads
+   //Only Chains shallower than spawnDepth, with at least minUntraveledPathsToSpawn Paths left to cover, get their own task
+   //Everything deeper runs inline on the thread that found it, so the pool sees a few thousand decent sized tasks instead of millions of tiny ones
+   public record SearchSettings(Executor executor, int parallelism, int spawnDepth, int minUntraveledPathsToSpawn)
+   {
+   
+      public enum Executor
+      {
+      
+         //A work stealing pool owned by this PathFinder, shut down on close
+         WORK_STEALING,
+         //A work stealing pool shared by every PathFinder with the same parallelism, shut down once the last one closes
+         SHARED_WORK_STEALING,
+         //One virtual thread per task. Parallelism is decided by the JVM's carrier pool (-Djdk.virtualThreadScheduler.parallelism)
+         VIRTUAL_THREADS,
+         ;
+      
+      }
+   
+      private static final Map<Integer, ExecutorService> SHARED_POOLS = new HashMap<>();
+      private static final Map<Integer, Integer> SHARED_POOL_USERS = new HashMap<>();
+   
+      public SearchSettings
+      {
+      
+         Objects.requireNonNull(executor);
+      
+         if (parallelism < 1)
+         {
+         
+            throw new IllegalArgumentException("Parallelism must be at least 1! parallelism = " + parallelism);
+         
+         }
+      
+         if (spawnDepth < 0 || minUntraveledPathsToSpawn < 0)
+         {
+         
+            throw new IllegalArgumentException("Spawn thresholds cannot be negative! spawnDepth = "
+                                    + spawnDepth + " minUntraveledPathsToSpawn = " + minUntraveledPathsToSpawn);
+         
+         }
+      
+      }
+   
+      public static SearchSettings defaults()
+      {
+      
+         return new SearchSettings(Executor.WORK_STEALING, Runtime.getRuntime().availableProcessors(), 8, 3);
+      
+      }
+   
+      public SearchSettings withExecutor(Executor executor)
+      {
+      
+         return new SearchSettings(executor, this.parallelism, this.spawnDepth, this.minUntraveledPathsToSpawn);
+      
+      }
+   
+      public SearchSettings withParallelism(int parallelism)
+      {
+      
+         return new SearchSettings(this.executor, parallelism, this.spawnDepth, this.minUntraveledPathsToSpawn);
+      
+      }
+   
+      public SearchSettings withSpawnDepth(int spawnDepth)
+      {
+      
+         return new SearchSettings(this.executor, this.parallelism, spawnDepth, this.minUntraveledPathsToSpawn);
+      
+      }
+   
+      public SearchSettings withMinUntraveledPathsToSpawn(int minUntraveledPathsToSpawn)
+      {
+      
+         return new SearchSettings(this.executor, this.parallelism, this.spawnDepth, minUntraveledPathsToSpawn);
+      
+      }
+   
+      private ExecutorService openPool()
+      {
+      
+         return
+            switch (this.executor)
+            {
+            
+               case WORK_STEALING        -> Executors.newWorkStealingPool(this.parallelism);
+               case VIRTUAL_THREADS      -> Executors.newVirtualThreadPerTaskExecutor();
+               case SHARED_WORK_STEALING ->
+                  {
+                  
+                     synchronized (SHARED_POOLS)
+                     {
+                     
+                        SHARED_POOL_USERS.merge(this.parallelism, 1, Integer::sum);
+                     
+                        yield SHARED_POOLS.computeIfAbsent(this.parallelism, Executors::newWorkStealingPool);
+                     
+                     }
+                  
+                  }
+            
+            };
+      
+      }
+   
+      private void closePool(ExecutorService pool)
+      {
+      
+         if (this.executor != Executor.SHARED_WORK_STEALING)
+         {
+         
+            pool.shutdown();
+         
+            return;
+         
+         }
+      
+         synchronized (SHARED_POOLS)
+         {
+         
+            final int remainingUsers = SHARED_POOL_USERS.merge(this.parallelism, -1, Integer::sum);
+         
+            if (remainingUsers == 0)
+            {
+            
+               SHARED_POOL_USERS.remove(this.parallelism);
+               SHARED_POOLS.remove(this.parallelism).shutdown();
+            
+            }
+         
+         }
+      
+      }
+   
+   }
+
+   //Everything from here to kickOffFileChooser lets DistributedSearch and CorpusBenchmark drive the search without seeing the records it is made of
+   //Maps travel as the directions from their file name (ab5_bc4_...), routes as comma separated rooms (a,b,c)
+
+   //The 2 ways of finding the single cheapest route
+   static final long DEFAULT_FRONTIER_BUDGET_BYTES = 256L * 1024 * 1024;
+
+   enum Engine
+   {
+   
+      //findBestPathsStartingFrom, what performSingleRun uses
+      CHAIN,
+      //findBestPathsWithSearchState
+      SEARCH_STATE,
+      //findBestPathsBestFirst, with DEFAULT_FRONTIER_BUDGET_BYTES of direct memory before it spills to disk
+      BEST_FIRST,
+      //findBestPathsMeetingInTheMiddle
+      MEET_IN_THE_MIDDLE,
+      ;
+   
+   }
+
+   int cheapestWeightOf(File file, Engine engine)
+   {
+   
+      Objects.requireNonNull(file);
+      Objects.requireNonNull(engine);
+   
+      final PathFinderInputs inputs = new PathFinderInputs(file);
+      final GameMap gameMap = inputs.generateGameMap();
+      final Node start = new Node(inputs.node());
+   
+      final Chain result =
+         switch (engine)
+         {
+         
+            case CHAIN        -> findBestPathsStartingFrom(start, gameMap);
+            case SEARCH_STATE -> findBestPathsWithSearchState(start, gameMap);
+            case BEST_FIRST   -> findBestPathsBestFirst(start, gameMap, DEFAULT_FRONTIER_BUDGET_BYTES);
+            case MEET_IN_THE_MIDDLE -> findBestPathsMeetingInTheMiddle(start, gameMap);
+         
+         };
+   
+      return result.weight();
+   
+   }
+
+   //What the watch folder writes next to a map: millis of LargeNeighbourhoodSearch, which stops as soon as it proves itself
+   //optimal. That happens on any map with up to 20 odd rooms, where the pairing bound is exact, and bigger maps get their gap
+   String solutionOf(File file, long millis)
+   {
+   
+      final PathFinderInputs inputs = new PathFinderInputs(file);
+      final Node start = new Node(inputs.node());
+      final BoundedChain result = findGoodPathsWithLargeNeighbourhoodSearch(start, inputs.generateGameMap(), millis);
+   
+      return
+         "weight " + result.chain().weight() + "\n"
+         + "lowerBound " + result.lowerBound() + "\n"
+         + "gap " + result.gap() + "\n"
+         + "route " + result.chain().toRooms(start) + "\n"
+         ;
+   
+   }
+
+   //How many search nodes the last solve expanded, for benchmarks that care about work done and not just time taken
+   long nodesOfLastSolve()
+   {
+   
+      return this.progress.nodes();
+   
+   }
+
+   static String directionsOf(File file)
+   {
+   
+      return new PathFinderInputs(file).directions();
+   
+   }
+
+   static String startingRoomOf(File file)
+   {
+   
+      return new PathFinderInputs(file).node();
+   
+   }
+
+   //A route that is already good, as comma separated rooms, so the search can start pruning against it right away
+   static String heuristicRouteOf(String directions, String node)
+   {
+   
+      final GameMap gameMap = new PathFinderInputs(directions, node).generateGameMap();
+      final MapIndex index = new MapIndex(gameMap);
+      final Node start = new Node(node);
+   
+      return index.greedyCoverageWalk(index.id(start)).toRooms(start);
+   
+   }
+
+   //The same map however its Paths were written: each Path lowest room first, then every Path sorted, so equal maps give equal strings
+   static String normalizedDirectionsOf(String directions)
+   {
+   
+      return
+         new PathFinderInputs(directions, "")
+            .generateGameMap()
+            .gameMap()
+            .stream()
+            .map(path -> path.start().id().compareTo(path.end().id()) <= 0 ? path : path.flip())
+            .map(path -> path.start() + "," + path.end() + "," + path.weight())
+            .sorted()
+            .collect(Collectors.joining("_"))
+            ;
+   
+   }
+
+   //A cheapest route from node as comma separated rooms, without printing anything
+   //Only runs on the calling thread and counts into a SearchProgress of its own, so several of these can run at once without
+   //fighting over the pool or each other's counters
+   String cheapestRouteOf(String directions, String node, long budgetBytes)
+   {
+   
+      final GameMap gameMap = new PathFinderInputs(directions, node).generateGameMap();
+      final Node start = new Node(node);
+   
+      return findBestPathsBestFirst(start, gameMap, budgetBytes, new SearchProgress()).toRooms(start);
+   
+   }
+
+   static int weightOfRoute(String directions, String route)
+   {
+   
+      return Chain.fromRooms(new PathFinderInputs(directions, "").generateGameMap(), route).weight();
+   
+   }
+
+   static void prettyPrintRoute(String directions, String route)
+   {
+   
+      final GameMap gameMap = new PathFinderInputs(directions, "").generateGameMap();
+   
+      prettyPrintBestChain(Chain.fromRooms(gameMap, route));
+   
+   }
+
+   //Every route the search could take from node on the contracted map, cut off after depth steps, written as rooms on that map
+   //Routes that cover the map stop early, and dominated ones and mirror images of ones already kept are dropped, so together these
+   //are every route worth searching. SubtreeSearch contracts the map the same way, so the rooms mean the same thing there
+   static List<String> splitSearch(String directions, String node, int depth)
+   {
+   
+      final Node start = new Node(node);
+      final GameMap gameMap = ContractedMap.of(new PathFinderInputs(directions, node).generateGameMap(), start).gameMap();
+      final List<String> prefixes = new ArrayList<>();
+   
+      split(gameMap, start, start, Chain.empty(), Symmetry.of(new MapIndex(gameMap), start), depth, prefixes);
+   
+      return prefixes;
+   
+   }
+
+   //Walks the top of the tree the way startRecursion does, minus pruning by weight, since nothing has been found to prune against yet
+   private static void split(GameMap gameMap, Node start, Node current, Chain chain, Symmetry symmetry, int depth, List<String> prefixes)
+   {
+   
+      if (chain.isDominated())
+      {
+      
+         return;
+      
+      }
+   
+      if (chain.size() == depth || gameMap.isSubsetOf(chain))
+      {
+      
+         prefixes.add(chain.toRooms(start));
+      
+         return;
+      
+      }
+   
+      final List<Path> nextPaths = gameMap.findPathsFromNode(current);
+      final boolean[] mirrored = symmetry.mirroredIn(nextPaths);
+   
+      for (int i = 0; i < nextPaths.size(); i++)
+      {
+      
+         final Path each = nextPaths.get(i);
+      
+         if (!mirrored[i])
+         {
+         
+            split(gameMap, start, each.end(), chain.add(each), symmetry.fixing(each), depth, prefixes);
+         
+         }
+      
+      }
+   
+   }
+
+   //A search that can be stopped at any moment, even by a crash, and picked up again later from where it was
+   //The tree is cut into prefixes PREFIX_DEPTH steps deep, and each prefix is searched as 1 task. Every CHECKPOINT_EVERY_MILLIS, and
+   //on shutdown, the prefixes not finished yet, the best route so far and the counters go into a small binary file. Resuming reads
+   //that file back and only searches the prefixes that were left, pruning against the best route so far, so it ends on the same optimum
+   //
+   //Everything is written big endian through DataOutputStream, and every String is an int byte length and then that many UTF-8 bytes
+   //   int MAGIC, short VERSION, String directions, String start room, String best route so far (rooms on the contracted map), long nodes,
+   //   long elapsed millis, int prefix count, int pending count, then per pending prefix a byte length and that many short Path ids
+   final class CheckpointedSearch
+   {
+   
+      private static final int MAGIC = 0x44445043;
+      private static final short VERSION = 2;
+      private static final int PREFIX_DEPTH = 6;
+      private static final long CHECKPOINT_EVERY_MILLIS = 30_000;
+   
+      private final String directions;
+      private final Node start;
+      private final File checkpoint;
+      private final GameMap gameMap;
+      private final ContractedMap contracted;
+      private final MapIndex index;
+      private final RouteCollector collector;
+      private final List<int[]> prefixes;
+      private final Set<Integer> pending = new ConcurrentSkipListSet<>();
+      private final int prefixCount;
+      private final long earlierNodes;
+      private final long earlierMillis;
+      private final long startNanos = System.nanoTime();
+   
+      //A new search of the map in file, checkpointing to checkpoint
+      CheckpointedSearch(File file, File checkpoint)
+      {
+      
+         this(directionsOf(file), startingRoomOf(file), checkpoint, null);
+      
+      }
+   
+      //The search that was going on when checkpoint was last written
+      CheckpointedSearch(File checkpoint)
+      {
+      
+         this(read(checkpoint), checkpoint);
+      
+      }
+   
+      private CheckpointedSearch(DataInputStream in, File checkpoint)
+      {
+      
+         this(readString(in), readString(in), checkpoint, in);
+      
+      }
+   
+      private CheckpointedSearch(String directions, String node, File checkpoint, DataInputStream in)
+      {
+      
+         this.directions = Objects.requireNonNull(directions);
+         this.start = new Node(node);
+         this.checkpoint = Objects.requireNonNull(checkpoint);
+         this.gameMap = new PathFinderInputs(directions, node).generateGameMap();
+         this.contracted = ContractedMap.of(this.gameMap, this.start);
+         this.index = new MapIndex(this.contracted.gameMap());
+         this.collector = RouteCollector.best(this.contracted.gameMap());
+         this.prefixes = new ArrayList<>();
+      
+         if (this.index.pathCount() > Short.MAX_VALUE)
+         {
+         
+            throw new IllegalArgumentException("Too many paths to checkpoint! paths = " + this.index.pathCount());
+         
+         }
+      
+         if (in == null)
+         {
+         
+            this.collector.offer(this.index.greedyCoverageWalk(this.index.id(this.start)));
+         
+            this.cut(new SearchState(this.index, this.index.id(this.start)));
+         
+            for (int i = 0; i < this.prefixes.size(); i++)
+            {
+            
+               this.pending.add(i);
+            
+            }
+         
+            this.prefixCount = this.prefixes.size();
+            this.earlierNodes = 0;
+            this.earlierMillis = 0;
+         
+            return;
+         
+         }
+      
+         try (in)
+         {
+         
+            this.collector.offer(Chain.fromRooms(this.contracted.gameMap(), readText(in)));
+            this.earlierNodes = in.readLong();
+            this.earlierMillis = in.readLong();
+            this.prefixCount = in.readInt();
+         
+            final int pendingCount = in.readInt();
+         
+            for (int i = 0; i < pendingCount; i++)
+            {
+            
+               final int[] prefix = new int[in.readUnsignedByte()];
+            
+               for (int step = 0; step < prefix.length; step++)
+               {
+               
+                  prefix[step] = in.readShort();
+               
+               }
+            
+               this.pending.add(this.prefixes.size());
+               this.prefixes.add(prefix);
+            
+            }
+         
+         }
+         
+         catch (IOException e)
+         {
+         
+            throw new UncheckedIOException(e);
+         
+         }
+      
+      }
+   
+      private static DataInputStream read(File checkpoint)
+      {
+      
+         try
+         {
+         
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(checkpoint)));
+         
+            if (in.readInt() != MAGIC || in.readShort() != VERSION)
+            {
+            
+               in.close();
+            
+               throw new IllegalArgumentException("Not a version " + VERSION + " checkpoint! checkpoint = " + checkpoint);
+            
+            }
+         
+            return in;
+         
+         }
+         
+         catch (IOException e)
+         {
+         
+            throw new UncheckedIOException(e);
+         
+         }
+      
+      }
+   
+      private static String readString(DataInputStream in)
+      {
+      
+         try
+         {
+         
+            return readText(in);
+         
+         }
+         
+         catch (IOException e)
+         {
+         
+            throw new UncheckedIOException(e);
+         
+         }
+      
+      }
+   
+      //Not readUTF/writeUTF, since those stop at 65535 bytes, and a big map with long room ids gets past that easily
+      private static String readText(DataInputStream in) throws IOException
+      {
+      
+         final int length = in.readInt();
+      
+         if (length < 0)
+         {
+         
+            throw new IllegalArgumentException("Checkpoint holds a String with a negative length! length = " + length);
+         
+         }
+      
+         final byte[] bytes = new byte[length];
+      
+         in.readFully(bytes);
+      
+         return new String(bytes, StandardCharsets.UTF_8);
+      
+      }
+   
+      private static void writeText(DataOutputStream out, String text) throws IOException
+      {
+      
+         final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+      
+         out.writeInt(bytes.length);
+         out.write(bytes);
+      
+      }
+   
+      //Walks the top of the tree the same way searchFrom does, keeping what is still open PREFIX_DEPTH steps down
+      private void cut(SearchState state)
+      {
+      
+         if (state.isComplete())
+         {
+         
+            if (state.weight() < this.collector.cutoff())
+            {
+            
+               this.collector.offer(state.toChain());
+            
+            }
+         
+            return;
+         
+         }
+      
+         if (state.lowerBound() >= this.collector.cutoff())
+         {
+         
+            return;
+         
+         }
+      
+         if (state.depth() == PREFIX_DEPTH)
+         {
+         
+            this.prefixes.add(state.steps());
+         
+            return;
+         
+         }
+      
+         final int count = state.fillCandidates();
+      
+         for (int i = 0; i < count; i++)
+         {
+         
+            state.push(state.candidate(i));
+         
+            this.cut(state);
+         
+            state.pop();
+         
+         }
+      
+      }
+   
+      Chain run()
+      {
+      
+         final Thread onShutdown = new Thread(this::save, "checkpoint-on-shutdown");
+         final Thread saver = Thread.ofPlatform().daemon().name("checkpoint-saver").start(this::saveEvery);
+      
+         Runtime.getRuntime().addShutdownHook(onShutdown);
+      
+         progress.reset(this.collector.cutoff(), this.index.openWalkLowerBound(this.index.id(this.start), this.index.oddRooms()));
+         progress.finished((double) (this.prefixCount - this.pending.size()) / Math.max(1, this.prefixCount));
+      
+         final SearchProgress.Reporter reporter = progress.startReporting(System.out);
+      
+         try
+         {
+         
+            final List<Future<?>> branches = new ArrayList<>();
+         
+            for (int each : List.copyOf(this.pending))
+            {
+            
+               branches.add(submit(() -> this.search(each)));
+            
+            }
+         
+            for (Future<?> each : branches)
+            {
+            
+               each.get();
+            
+            }
+         
+         }
+         
+         catch (Exception e)
+         {
+         
+            throw new RuntimeException(e);
+         
+         }
+         
+         //Whatever happened, the saver has to be done before the checkpoint goes, or a save it was halfway through puts it back
+         finally
+         {
+         
+            reporter.close();
+            saver.interrupt();
+         
+            try
+            {
+            
+               saver.join();
+            
+            }
+            
+            catch (InterruptedException e)
+            {
+            
+               Thread.currentThread().interrupt();
+            
+            }
+         
+            try
+            {
+            
+               Runtime.getRuntime().removeShutdownHook(onShutdown);
+            
+            }
+            
+            //Already shutting down, so the hook is running anyway
+            catch (IllegalStateException e)
+            {
+            
+            }
+         
+         }
+      
+         this.checkpoint.delete();
+      
+         return this.contracted.expand(this.collector.results().get(0));
+      
+      }
+   
+      private Void search(int prefix)
+      {
+      
+         final SearchState state = new SearchState(this.index, this.index.id(this.start));
+      
+         for (int step : this.prefixes.get(prefix))
+         {
+         
+            state.push(step);
+         
+         }
+      
+         searchFrom(state, this.collector, 0);
+      
+         this.pending.remove(prefix);
+      
+         progress.finished(1.0 / this.prefixCount);
+      
+         return null;
+      
+      }
+   
+      private void saveEvery()
+      {
+      
+         while (!Thread.currentThread().isInterrupted())
+         {
+         
+            try
+            {
+            
+               Thread.sleep(CHECKPOINT_EVERY_MILLIS);
+            
+            }
+            
+            catch (InterruptedException e)
+            {
+            
+               return;
+            
+            }
+         
+            this.save();
+         
+         }
+      
+      }
+   
+      //Written next to the checkpoint and then moved over it, so a crash halfway through never leaves a broken checkpoint behind
+      private synchronized void save()
+      {
+      
+         final File temporary = new File(this.checkpoint.getPath() + ".tmp");
+      
+         try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary))))
+         {
+         
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            writeText(out, this.directions);
+            writeText(out, this.start.id());
+            writeText(out, this.collector.results().get(0).toRooms(this.start));
+            out.writeLong(this.earlierNodes + progress.nodes());
+            out.writeLong(this.earlierMillis + (System.nanoTime() - this.startNanos) / 1_000_000);
+            out.writeInt(this.prefixCount);
+         
+            //A snapshot, since prefixes keep finishing while this is written
+            final List<Integer> pending = List.copyOf(this.pending);
+         
+            out.writeInt(pending.size());
+         
+            for (int each : pending)
+            {
+            
+               final int[] prefix = this.prefixes.get(each);
+            
+               out.writeByte(prefix.length);
+            
+               for (int step : prefix)
+               {
+               
+                  out.writeShort(step);
+               
+               }
+            
+            }
+         
+         }
+         
+         catch (IOException e)
+         {
+         
+            throw new UncheckedIOException(e);
+         
+         }
+      
+         try
+         {
+         
+            Files.move(temporary.toPath(), this.checkpoint.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+         
+         }
+         
+         catch (IOException e)
+         {
+         
+            throw new UncheckedIOException(e);
+         
+         }
+      
+         System.out.println("CHECKPOINT pending=" + pending.size() + " of " + this.prefixCount + " incumbent=" + this.collector.cutoff()
+                              + " nodes=" + (this.earlierNodes + progress.nodes()));
+      
+      }
+   
+      long elapsedMillis()
+      {
+      
+         return this.earlierMillis + (System.nanoTime() - this.startNanos) / 1_000_000;
+      
+      }
+   
+   }
+
+   //Searches every route that starts with the given one, keeping only routes lighter than bound
+   //route is rooms on the contracted map, the way splitSearch writes them, and below it runs the same searchFrom as the SearchState
+   //engine, so a worker prunes just as hard as a single JVM does. Improvements are handed on with the hallways put back
+   final class SubtreeSearch
+   {
+   
+      private final Node start;
+      private final MapIndex index;
+      private final Chain prefix;
+      private final RouteCollector collector;
+   
+      SubtreeSearch(String directions, String route, int bound, BiConsumer<Integer, String> onImprovement)
+      {
+      
+         Objects.requireNonNull(onImprovement);
+      
+         final Node start = new Node(route.split(",")[0]);
+         final ContractedMap contracted = ContractedMap.of(new PathFinderInputs(directions, start.id()).generateGameMap(), start);
+      
+         this.start = start;
+         this.index = new MapIndex(contracted.gameMap());
+         this.prefix = Chain.fromRooms(contracted.gameMap(), route);
+         this.collector =
+            RouteCollector
+               .incumbent
+               (
+                  bound,
+                  chain -> onImprovement.accept(chain.weight(), contracted.expand(chain).toRooms(start))
+               );
+      
+      }
+   
+      void tighten(int bound)
+      {
+      
+         this.collector.tighten(bound);
+      
+      }
+   
+      void run()
+      {
+      
+         final SearchState state = new SearchState(this.index, this.index.id(this.start));
+      
+         for (Path each : this.prefix.chain())
+         {
+         
+            state.push(this.index.pathBetween(this.index.id(each.start()), this.index.id(each.end())));
+         
+         }
+      
+         searchFrom(state, this.collector, 0);
+      
+      }
+   
+   }
+
+   //Solves the map in file, checkpointing to checkpoint as it goes
+   public void solveWithCheckpoints(File file, File checkpoint)
+   {
+   
+      this.finishCheckpointedSearch(new CheckpointedSearch(file, checkpoint));
+   
+   }
+
+   //Solves the map in file like a single run, recording every expansion and prune of the search into traceFile for SearchTrace.report
+   public void solveWithTrace(File file, File traceFile)
+   {
+   
+      try (final SearchTrace trace = new SearchTrace(traceFile))
+      {
+      
+         this.trace = trace;
+      
+         this.performSingleRun(new PathFinderInputs(file));
+      
+      }
+   
+      finally
+      {
+      
+         this.trace = null;
+      
+      }
+   
+   }
+
+   //Carries on with the search that was going on when checkpoint was written
+   public void resumeFromCheckpoint(File checkpoint)
+   {
+   
+      this.finishCheckpointedSearch(new CheckpointedSearch(checkpoint));
+   
+   }
+
+   private void finishCheckpointedSearch(CheckpointedSearch search)
+   {
+   
+      final Chain result = search.run();
+   
+      System.out.println("Finished in " + (search.elapsedMillis() / 1000.0) + " seconds, counting every run before this one");
+   
+      prettyPrintBestChain(result);
+   
+      System.out.println("FINAL = " + result.weight());
+   
+   }
+
+   public void kickOffFileChooser()
+   {
+   
+      final JFileChooser fileChooser = new JFileChooser("./");
+      
+      fileChooser.showOpenDialog(null);
+      
+      final File fileToRun = fileChooser.getSelectedFile();
+      
+      if (fileToRun != null)
+      {
+      
+         this.kickOffAll(fileToRun);
+      
+      }
+   
+   }
+
+   public void kickOffFileChooserTopK(int k)
+   {
+   
+      this.kickOffFileChooser(inputs -> this.performTopKRun(inputs, k));
+   
+   }
+
+   //Every route no more than tolerance heavier than the cheapest one
+   public void kickOffFileChooserTolerance(int tolerance)
+   {
+   
+      this.kickOffFileChooser(inputs -> this.performToleranceRun(inputs, tolerance));
+   
+   }
+
+   public void kickOffFileChooserOptimalRoutes(int samples)
+   {
+   
+      this.kickOffFileChooser(inputs -> this.performOptimalRouteCountRun(inputs, samples));
+   
+   }
+
+   public void kickOffFileChooserRoomCoverage()
+   {
+   
+      this.kickOffFileChooser(this::performRoomCoverageRun);
+   
+   }
+
+   //required names the Paths that have to be walked by their rooms, like ab_cd
+   public void kickOffFileChooserRequiredCoverage(String required)
+   {
+   
+      this.kickOffFileChooser(inputs -> this.performRequiredCoverageRun(inputs, required));
+   
+   }
+
+   //Every route that no other route beats on weight, room reentries and corridor repeats all at once, up to maxExtraWeight over the
+   //cheapest
+   public void kickOffFileChooserPareto(int maxExtraWeight)
+   {
+   
+      this.kickOffFileChooser(inputs -> this.performParetoRun(inputs, maxExtraWeight));
+   
+   }
+
+   //Cheapest walk that covers at least fraction of the rooms or Paths, whichever coverage says
+   public void kickOffFileChooserPartialCoverage(Coverage coverage, double fraction)
+   {
+   
+      this.kickOffFileChooser(inputs -> this.performPartialCoverageRun(inputs, coverage, fraction));
+   
+   }
+
+   //Replays the map 1 revealed Path at a time through a MapSession, solving after each one
+   public void kickOffFileChooserIncremental()
+   {
+   
+      this.kickOffFileChooser(this::performIncrementalRun);
+   
+   }
+
+   //The single cheapest route, found by the make/unmake SearchState engine instead of by building Chains
+   public void kickOffFileChooserSearchState()
+   {
+   
+      this.kickOffFileChooser(this::performSearchStateRun);
+   
+   }
+
+   //The single cheapest route, found best-first with the frontier spilling to disk past budgetMegabytes
+   public void kickOffFileChooserBestFirst(long budgetMegabytes)
+   {
+   
+      this.kickOffFileChooser(inputs -> this.performBestFirstRun(inputs, budgetMegabytes));
+   
+   }
+
+   public void kickOffFileChooserLargeNeighbourhood(int seconds)
+   {
+   
+      this.kickOffFileChooser(inputs -> this.performLargeNeighbourhoodRun(inputs, seconds));
+   
+   }
+
+   public void kickOffFileChooserMeetInTheMiddle()
+   {
+   
+      this.kickOffFileChooser(this::performMeetInTheMiddleRun);
+   
+   }
+
+   private void kickOffFileChooser(Consumer<PathFinderInputs> run)
+   {
+   
+      final JFileChooser fileChooser = new JFileChooser("./");
+      
+      fileChooser.showOpenDialog(null);
+      
+      final File fileToRun = fileChooser.getSelectedFile();
+      
+      if (fileToRun != null)
+      {
+      
+         run.accept(new PathFinderInputs(fileToRun));
+      
+      }
+   
+   }
+
+   public void kickOffAll()
+   {
+   
+      //sleep(20);
+   
+      var absolutePath = java.nio.file.Path
+                  .of("./")
+                  .toAbsolutePath();
+   
+      while (!absolutePath.endsWith("HelperFunctions"))
+      {
+      
+         absolutePath = absolutePath.getParent();
+      
+      }
+   
+      absolutePath = Paths.get(absolutePath.toString(), "src", "main", "resources", "DarkestDungeon");
+   
+      System.out.println(absolutePath);
+      var file = absolutePath
+                  .toFile();
+   
+      System.out.println(file);
+      var array = file
+                  .listFiles()
+                  ;
+   
+      if (array.length == 0)
+      {
+      
+         throw new IllegalStateException("There are no files to run!");
+      
+      }
+   
+      kickOffAll(array);
+   
+   }
+   
+   private void kickOffAll(final File... array)
+   {
+   
+      final List<PathFinderInputs> list =
+         Arrays
+            .asList(array)
+            .stream()
+            .filter(each -> each.isFile())
+            .filter(PathFinder::startsWithDate)
+            .map(PathFinderInputs::new)
+            //.sorted(Comparator.comparingInt(PathFinderInputs::length))
+            .peek(System.out::println)
+            .toList()
+            ;
+   
+      list.forEach(this::performSingleRun);
+   
       //sleep(20);
    
-      var absolutePath = java.nio.file.Path
-                  .of("./")
-                  .toAbsolutePath();
+   }
+
+   private static void sleep(int seconds)
+   {
+   
+      try
+      {
+      
+         System.out.println("Waiting");
+         Thread.sleep(seconds * 1000);
+         System.out.println("Continuing");
+      
+      }
+      
+      catch (Throwable e)
+      {
+      
+         throw new RuntimeException(e);
+      
+      }
+   
+   }
+
+   private void performSingleRun(PathFinderInputs inputs)
+   {
+   
+      System.out.println();
+   
+      System.out.println(inputs.node() + " -- " + inputs.generateGameMap());
+   
+      singleManualRun:
+      {
+      
+         final GameMap gameMap = inputs.generateGameMap();
+      
+         final Node startingNode = new Node(inputs.node());
+      
+         final double start = System.currentTimeMillis();
+      
+         final Chain result;
+      
+         final SearchProgress.Reporter reporter = this.progress.startReporting(System.out);
+      
+         try
+         {
+         
+            result = findBestPathsStartingFrom(startingNode, gameMap);
+         
+         }
+      
+         finally
+         {
+         
+            reporter.close();
+         
+         }
+      
+         final double finish = System.currentTimeMillis();
+      
+         System.out.println("Finished in " + ((finish - start)/1000) + " seconds");
+      
+         System.out.println("Spawned " + this.spawnedTasks.sumThenReset() + " tasks with " + this.settings);
+      
+         prettyPrintBestChain(result);
+      
+         System.out.println("FINAL = " + result.weight());
+      
+      }
+   
+   }
+
+   private void performSearchStateRun(PathFinderInputs inputs)
+   {
+   
+      System.out.println();
+   
+      System.out.println(inputs.node() + " -- " + inputs.generateGameMap());
+   
+      final GameMap gameMap = inputs.generateGameMap();
+   
+      final Node startingNode = new Node(inputs.node());
+   
+      final double start = System.currentTimeMillis();
+   
+      final Chain result;
+   
+      final SearchProgress.Reporter reporter = this.progress.startReporting(System.out);
+   
+      try
+      {
+      
+         result = findBestPathsWithSearchState(startingNode, gameMap);
+      
+      }
+   
+      finally
+      {
+      
+         reporter.close();
+      
+      }
+   
+      final double finish = System.currentTimeMillis();
+   
+      System.out.println("Finished in " + ((finish - start)/1000) + " seconds");
+   
+      System.out.println("Spawned " + this.spawnedTasks.sumThenReset() + " tasks with " + this.settings);
+   
+      prettyPrintBestChain(result);
+   
+      System.out.println("FINAL = " + result.weight());
+   
+   }
+
+   private void performBestFirstRun(PathFinderInputs inputs, long budgetMegabytes)
+   {
+   
+      System.out.println();
+   
+      System.out.println(inputs.node() + " -- " + inputs.generateGameMap());
+   
+      final GameMap gameMap = inputs.generateGameMap();
+   
+      final Node startingNode = new Node(inputs.node());
+   
+      final double start = System.currentTimeMillis();
+   
+      final Chain result;
+   
+      final SearchProgress.Reporter reporter = this.progress.startReporting(System.out);
+   
+      try
+      {
+      
+         result = findBestPathsBestFirst(startingNode, gameMap, budgetMegabytes * 1024 * 1024);
+      
+      }
+   
+      finally
+      {
+      
+         reporter.close();
+      
+      }
+   
+      final double finish = System.currentTimeMillis();
+   
+      System.out.println("Finished in " + ((finish - start)/1000) + " seconds");
+   
+      prettyPrintBestChain(result);
+   
+      System.out.println("FINAL = " + result.weight());
+   
+   }
+
+   private void performMeetInTheMiddleRun(PathFinderInputs inputs)
+   {
+   
+      System.out.println();
+   
+      System.out.println(inputs.node() + " -- " + inputs.generateGameMap());
+   
+      final GameMap gameMap = inputs.generateGameMap();
+   
+      final Node startingNode = new Node(inputs.node());
+   
+      final double start = System.currentTimeMillis();
+   
+      final Chain result;
+   
+      final SearchProgress.Reporter reporter = this.progress.startReporting(System.out);
+   
+      try
+      {
+      
+         result = findBestPathsMeetingInTheMiddle(startingNode, gameMap);
+      
+      }
+   
+      finally
+      {
+      
+         reporter.close();
+      
+      }
+   
+      final double finish = System.currentTimeMillis();
+   
+      System.out.println("Finished in " + ((finish - start)/1000) + " seconds");
+   
+      prettyPrintBestChain(result);
+   
+      System.out.println("FINAL = " + result.weight());
+   
+   }
+
+   private void performLargeNeighbourhoodRun(PathFinderInputs inputs, int seconds)
+   {
+   
+      System.out.println();
+   
+      System.out.println(inputs.node() + " -- " + inputs.generateGameMap());
+   
+      final GameMap gameMap = inputs.generateGameMap();
+   
+      final Node startingNode = new Node(inputs.node());
+   
+      final double start = System.currentTimeMillis();
+   
+      final BoundedChain result;
+   
+      final SearchProgress.Reporter reporter = this.progress.startReporting(System.out);
+   
+      try
+      {
+      
+         result = findGoodPathsWithLargeNeighbourhoodSearch(startingNode, gameMap, seconds * 1000L);
+      
+      }
+   
+      finally
+      {
+      
+         reporter.close();
+      
+      }
+   
+      final double finish = System.currentTimeMillis();
+   
+      System.out.println("Finished in " + ((finish - start)/1000) + " seconds");
+   
+      prettyPrintBestChain(result.chain());
+   
+      System.out.println("FINAL = " + result.chain().weight() + " LOWER BOUND = " + result.lowerBound() + " GAP = " + result.gap());
+   
+   }
+
+   private void performTopKRun(PathFinderInputs inputs, int k)
+   {
+   
+      System.out.println();
+   
+      System.out.println(inputs.node() + " -- " + inputs.generateGameMap());
+   
+      final GameMap gameMap = inputs.generateGameMap();
+   
+      final Node startingNode = new Node(inputs.node());
+   
+      final double start = System.currentTimeMillis();
+   
+      final var results = findCheapestPathsStartingFrom(startingNode, gameMap, k);
+   
+      final double finish = System.currentTimeMillis();
+   
+      System.out.println("Finished in " + ((finish - start)/1000) + " seconds");
+   
+      results.forEach(PathFinder::prettyPrintBestChain);
+   
+      System.out.println("FOUND = " + results.size());
+   
+   }
+
+   private void performOptimalRouteCountRun(PathFinderInputs inputs, int samples)
+   {
+   
+      System.out.println();
+   
+      System.out.println(inputs.node() + " -- " + inputs.generateGameMap());
+   
+      final GameMap gameMap = inputs.generateGameMap();
+   
+      final Node startingNode = new Node(inputs.node());
+   
+      final double start = System.currentTimeMillis();
+   
+      final int optimum = findBestPathsBestFirst(startingNode, gameMap, DEFAULT_FRONTIER_BUDGET_BYTES).weight();
+   
+      final MapIndex index = new MapIndex(gameMap);
+   
+      final OptimalRouteCounter counter = new OptimalRouteCounter(index, index.id(startingNode), optimum);
+   
+      final BigInteger count = counter.count();
+   
+      final double finish = System.currentTimeMillis();
+   
+      System.out.println("Finished in " + ((finish - start)/1000) + " seconds over " + counter.states() + " states");
+   
+      final Random random = new Random();
+   
+      for (int i = 0; i < samples; i++)
+      {
+      
+         prettyPrintBestChain(counter.sample(random));
+      
+      }
+   
+      System.out.println("FINAL = " + optimum);
+   
+      System.out.println("OPTIMAL ROUTES = " + count);
+   
+   }
+
+   private void performToleranceRun(PathFinderInputs inputs, int tolerance)
+   {
+   
+      System.out.println();
+   
+      System.out.println(inputs.node() + " -- " + inputs.generateGameMap());
+   
+      final GameMap gameMap = inputs.generateGameMap();
+   
+      final Node startingNode = new Node(inputs.node());
+   
+      final double start = System.currentTimeMillis();
+   
+      final var results = findPathsWithinToleranceStartingFrom(startingNode, gameMap, tolerance);
+   
+      final double finish = System.currentTimeMillis();
+   
+      System.out.println("Finished in " + ((finish - start)/1000) + " seconds");
+   
+      results.forEach(PathFinder::prettyPrintBestChain);
+   
+      System.out.println("FOUND = " + results.size());
+   
+   }
+
+   private void performRoomCoverageRun(PathFinderInputs inputs)
+   {
+   
+      System.out.println();
+   
+      System.out.println(inputs.node() + " -- " + inputs.generateGameMap());
+   
+      final GameMap gameMap = inputs.generateGameMap();
+   
+      final Node startingNode = new Node(inputs.node());
+   
+      final double start = System.currentTimeMillis();
+   
+      final BoundedChain result = findCheapestRoomCoverageStartingFrom(startingNode, gameMap);
+   
+      final double finish = System.currentTimeMillis();
+   
+      System.out.println("Finished in " + ((finish - start)/1000) + " seconds");
+   
+      prettyPrintBestChain(result.chain());
+   
+      System.out.println("FINAL = " + result.chain().weight() + " LOWER BOUND = " + result.lowerBound() + " GAP = " + result.gap());
+   
+   }
+
+   private void performPartialCoverageRun(PathFinderInputs inputs, Coverage coverage, double fraction)
+   {
+   
+      System.out.println();
+   
+      System.out.println(inputs.node() + " -- " + inputs.generateGameMap());
+   
+      final GameMap gameMap = inputs.generateGameMap();
+   
+      final Node startingNode = new Node(inputs.node());
+   
+      final double start = System.currentTimeMillis();
+   
+      final BoundedChain result = findCheapestPartialCoverageStartingFrom(startingNode, gameMap, coverage, fraction);
+   
+      final double finish = System.currentTimeMillis();
+   
+      System.out.println("Finished in " + ((finish - start)/1000) + " seconds");
+   
+      prettyPrintBestChain(result.chain());
+   
+      System.out.println("FINAL = " + result.chain().weight() + " LOWER BOUND = " + result.lowerBound() + " GAP = " + result.gap());
+   
+   }
+
+   private void performRequiredCoverageRun(PathFinderInputs inputs, String required)
+   {
+   
+      System.out.println();
+   
+      System.out.println(inputs.node() + " -- " + inputs.generateGameMap() + " -- required " + required);
+   
+      final GameMap gameMap = inputs.generateGameMap();
+   
+      final Node startingNode = new Node(inputs.node());
+   
+      final double start = System.currentTimeMillis();
+   
+      final BoundedChain result = findCheapestRequiredCoverageStartingFrom(startingNode, gameMap, required);
+   
+      final double finish = System.currentTimeMillis();
+   
+      System.out.println("Finished in " + ((finish - start)/1000) + " seconds");
+   
+      prettyPrintBestChain(result.chain());
+   
+      System.out.println("FINAL = " + result.chain().weight() + " LOWER BOUND = " + result.lowerBound() + " GAP = " + result.gap());
+   
+   }
+
+   //Plays the map out like fog of war, revealing one Path at a time in the order a player walking from the start would find them
+   private void performIncrementalRun(PathFinderInputs inputs)
+   {
+   
+      System.out.println();
+   
+      System.out.println(inputs.node() + " -- " + inputs.generateGameMap());
+   
+      final GameMap gameMap = inputs.generateGameMap();
+      final List<Path> revealOrder = new ArrayList<>();
+      final Set<Node> reached = new HashSet<>(List.of(new Node(inputs.node())));
+   
+      while (revealOrder.size() < gameMap.gameMap().size())
+      {
+      
+         for (Path each : gameMap.gameMap())
+         {
+         
+            if (!revealOrder.contains(each) && (reached.contains(each.start()) || reached.contains(each.end())))
+            {
+            
+               revealOrder.add(each);
+               reached.add(each.start());
+               reached.add(each.end());
+            
+               break;
+            
+            }
+         
+         }
+      
+      }
+   
+      //A GameMap needs at least 2 connected Paths, so the first 2 come in together
+      final MapSession session = new MapSession(revealOrder.get(0) + "_" + revealOrder.get(1), inputs.node());
+   
+      for (int i = 1; i < revealOrder.size(); i++)
+      {
+      
+         final long start = System.nanoTime();
+      
+         if (i > 1)
+         {
+         
+            session.addPath(revealOrder.get(i).toString());
+         
+         }
+      
+         final String route = session.solve();
+      
+         final long finish = System.nanoTime();
+      
+         System.out.println("Revealed " + revealOrder.get(i) + " in " + ((finish - start) / 1_000_000.0) + " ms -- weight = "
+                              + session.lastWeight() + " bound = " + session.lastLowerBound() + " -- " + route);
+      
+      }
+   
+   }
+
+   private void performParetoRun(PathFinderInputs inputs, int maxExtraWeight)
+   {
+   
+      System.out.println();
+   
+      System.out.println(inputs.node() + " -- " + inputs.generateGameMap());
+   
+      final GameMap gameMap = inputs.generateGameMap();
+   
+      final Node startingNode = new Node(inputs.node());
+   
+      final double start = System.currentTimeMillis();
+   
+      final ParetoFront front = new ParetoFront(maxExtraWeight);
+   
+      startParetoRecursion(startingNode, startingNode, gameMap, Chain.empty(), front);
+   
+      final double finish = System.currentTimeMillis();
+   
+      System.out.println("Finished in " + ((finish - start)/1000) + " seconds");
+   
+      for (var each : front.results())
+      {
+      
+         System.out.println(each.costs());
+      
+         prettyPrintBestChain(each.chain());
+      
+      }
+   
+      System.out.println("FRONT SIZE = " + front.results().size());
+   
+   }
+
+   private static File validateFileName(File file)
+   {
+   
+      Objects.requireNonNull(file);
+   
+      if (PathFinder.startsWithDate(file))
+      {
+      
+         return file;
+      
+      }
+      
+      else
+      {
+      
+         throw new IllegalArgumentException("Filename is invalid! file = " + file);
+      
+      }
+   
+   }
+
+   private static boolean startsWithDate(File file)
+   {
+   
+      Objects.requireNonNull(file);
+   
+      final String[] fileNameComponents = file.getName().split("_");
+   
+      return fileNameComponents[0].matches("\\d{8}");
+   
+   }
+
+   private static boolean startsWithDate(String file)
+   {
+   
+      Objects.requireNonNull(file);
+   
+      final String[] fileNameComponents = file.split("_");
+   
+      return fileNameComponents[0].matches("\\d{8}");
+   
+   }
+
+   private static void prettyPrintBestChain(Chain chain)
+   {
+   
+      final List<Path> list = chain.chain();
+   
+      System.out.print("\tresult weight = " + chain.weight() + "\t");
+   
+      for (int i = 0; i < list.size(); i++)
+      {
+      
+         if (i == 0)
+         {
+         
+            System.out.print(" " + list.get(i).start().id());
+         
+         }
+         
+         else if (i != list.size() - 1)
+         {
+         
+            System.out.print(" -> " + list.get(i).start().id());
+         
+         }
+         
+         else
+         {
+         
+            System.out.print(" -> " + list.get(i).start().id());
+            System.out.print(" -> " + list.get(i).end().id());
+         
+         }
+      
+      }
+   
+      System.out.println();
+   
+   }
+
+   private Chain findBestPathsStartingFrom(Node start, GameMap gameMap)
+   {
+   
+      final ContractedMap contracted = ContractedMap.of(gameMap, start);
+      final Set<Chain> successfulChains = new CopyOnWriteArraySet<>();
+      final MapIndex index = new MapIndex(contracted.gameMap());
+      final Chain seed = index.greedyCoverageWalk(index.id(start));
+   
+      //Starting from a real route instead of maxPossibleTraversalWeight means pruning is tight from the very first step
+      successfulChains.add(seed);
+   
+      this.progress.reset(seed.weight(), index.openWalkLowerBound(index.id(start), index.oddRooms()));
+   
+      startRecursion(start, contracted.gameMap(), Chain.empty(), Symmetry.of(index, start), successfulChains, seed.weight(), 1.0);
+   
+      final Chain best =
+         successfulChains
+            .stream()
+            .sorted(Chain.comparator)
+            .findFirst()
+            .orElseThrow()
+            ;
+   
+      return contracted.expand(best);
+   
+   }
+
+   //The first SearchTrace.BRANCH_DEPTH rooms chain walks to, which is all the trace needs to know where in the search it is
+   private static long branchOf(SearchTrace trace, Chain chain)
+   {
+   
+      long branch = SearchTrace.ROOT;
+   
+      for (int i = 0; i < Math.min(chain.size(), SearchTrace.BRANCH_DEPTH); i++)
+      {
+      
+         branch = SearchTrace.branch(branch, i + 1, trace.room(chain.chain().get(i).end().id()));
+      
+      }
+   
+      return branch;
+   
+   }
+
+   //symmetry only holds the mirrors of gameMap that leave chain where it is
+   private int startRecursion(Node current, GameMap gameMap, Chain chain, Symmetry symmetry, Set<Chain> successfulChains, int oldMin,
+                                 double share)
+   {
+   
+      this.progress.visit();
+   
+      //Read once, so a trace that ends partway through cannot leave half a branch recorded
+      final SearchTrace trace = this.trace;
+   
+      final ToIntFunction<Future<Integer>> join =  
+         eachFuture -> 
+         {
+            try
+            {
+                     
+               final int result = eachFuture.get();
+               
+               return result;
+                     
+            }
+                     
+            catch (Exception e)
+            {
+                     
+               throw new RuntimeException(e);
+                     
+            }
+         };
+   
+      final int chainWeight = chain.weight();
+   
+      final long branch =
+         trace == null
+         ?
+         SearchTrace.ROOT
+         :
+         branchOf(trace, chain)
+         ;
+   
+      successCheck:
+      if (chainWeight <= oldMin && gameMap.isSubsetOf(chain))
+      {
+      
+         successfulChains.add(chain);
+      
+         this.progress.improve(chainWeight);
+         this.progress.finishedEarly(chain.size(), share);
+      
+         if (trace != null)
+         {
+         
+            trace.route(chain.size(), trace.room(current.id()), chainWeight, branch);
+         
+         }
+      
+         return chainWeight;
+      
+      }
+   
+      oldMin =
+         successfulChains
+            .stream()
+            .mapToInt(Chain::weight)
+            .min()
+            .orElse(oldMin)
+            ;
+   
+      failCheck:
+      if (chainWeight >= oldMin || chain.isDominated())
+      {
+      
+         this.progress.finishedEarly(chain.size(), share);
+      
+         if (trace != null)
+         {
+         
+            trace.pruned
+            (
+               chainWeight >= oldMin ? SearchTrace.Prune.OVER_BEST : SearchTrace.Prune.DOMINATED,
+               chain.size(),
+               trace.room(current.id()),
+               chainWeight,
+               branch
+            );
+         
+         }
+      
+         return oldMin;
+      
+      }
+   
+      if (trace != null)
+      {
+      
+         trace.expanded(chain.size(), trace.room(current.id()), chainWeight, branch);
+      
+      }
+   
+      final List<Future<Integer>> newMins = new ArrayList<>();
+      final List<Path> nextPaths = gameMap.findPathsFromNodeOptimized(current, chain);
+      final boolean[] mirrored = symmetry.mirroredIn(nextPaths);
+      final double branchShare = share / nextPaths.size();
+   
+      findNextPathLoop:
+      for (int i = 0; i < nextPaths.size(); i++)
+      {
+      
+         final Path each = nextPaths.get(i);
+      
+         //A mirror image of a Path already searched from here, so everything down it was already found the other way round
+         symmetryCheck:
+         if (mirrored[i])
+         {
+         
+            this.progress.finishedEarly(chain.size() + 1, branchShare);
+         
+            if (trace != null)
+            {
+            
+               final int room = trace.room(each.end().id());
+            
+               trace.pruned
+               (
+                  SearchTrace.Prune.MIRRORED,
+                  chain.size() + 1,
+                  room,
+                  chainWeight + each.weight(),
+                  SearchTrace.branch(branch, chain.size() + 1, room)
+               );
+            
+            }
+         
+            continue findNextPathLoop;
+         
+         }
+      
+         final int currentMin =
+            newMins
+               .stream()
+               .filter(Future::isDone)
+               .mapToInt(join)
+               .min()
+               .orElse(oldMin)
+               ;
+      
+         recursionCall:
+         if (chainWeight < currentMin - each.weight() && gameMap.amountOfUntraveledWeightLeft(chain) < currentMin - chainWeight)
+         {
+         
+            newMins
+               .add
+                  (
+                  fork
+                     (
+                        gameMap,
+                        chain,
+                        () -> 
+                           startRecursion
+                           (
+                              each.end(),
+                              gameMap,
+                              chain.add(each),
+                              symmetry.fixing(each),
+                              successfulChains,
+                              currentMin,
+                              branchShare
+                           )
+                     )
+                  );
+         
+         }
+         
+         else
+         {
+         
+            this.progress.finishedEarly(chain.size() + 1, branchShare);
+         
+            if (trace != null)
+            {
+            
+               final int room = trace.room(each.end().id());
+            
+               trace.pruned
+               (
+                  chainWeight >= currentMin - each.weight() ? SearchTrace.Prune.STEP_OVER_BEST : SearchTrace.Prune.UNCOVERED_OVER_BEST,
+                  chain.size() + 1,
+                  room,
+                  chainWeight + each.weight(),
+                  SearchTrace.branch(branch, chain.size() + 1, room)
+               );
+            
+            }
+         
+         }
+      
+         if (currentMin < oldMin)
+         {
+         
+            oldMin = currentMin;
+         
+         }
+      
+      }
+   
+      final int newMin =
+         newMins
+            .stream()
+            .mapToInt(join)
+            .min()
+            .orElse(oldMin)
+            ;
+   
+      this.progress.finishedExploring(chain.size(), share);
+   
+      return newMin;
+   
+   }
+
+   //Same answer as findBestPathsStartingFrom, but each worker walks one SearchState instead of building a new Chain every step
+   private Chain findBestPathsWithSearchState(Node start, GameMap gameMap)
+   {
+   
+      final ContractedMap contracted = ContractedMap.of(gameMap, start);
+      final MapIndex index = new MapIndex(contracted.gameMap());
+      final RouteCollector collector = RouteCollector.best(contracted.gameMap());
+   
+      collector.offer(index.greedyCoverageWalk(index.id(start)));
+   
+      this.progress.reset(collector.cutoff(), index.openWalkLowerBound(index.id(start), index.oddRooms()));
+   
+      searchFrom(new SearchState(index, index.id(start)), collector, 1.0);
+   
+      return contracted.expand(collector.results().get(0));
+   
+   }
+
+   private void searchFrom(SearchState state, RouteCollector collector, double share)
+   {
+   
+      this.progress.visit();
+   
+      successCheck:
+      if (state.isComplete())
+      {
+      
+         if (state.weight() < collector.cutoff())
+         {
+         
+            collector.offer(state.toChain());
+         
+            this.progress.improve(state.weight());
+         
+         }
+      
+         this.progress.finishedEarly(state.depth(), share);
+      
+         return;
+      
+      }
+   
+      failCheck:
+      if (state.lowerBound() >= collector.cutoff())
+      {
+      
+         this.progress.finishedEarly(state.depth(), share);
+      
+         return;
+      
+      }
+   
+      final List<Future<?>> branches = new ArrayList<>();
+      final int count = state.fillCandidates();
+   
+      //Every way on from here is a Path walked too often or a useless loop, so this whole share is done
+      deadEndCheck:
+      if (count == 0)
+      {
+      
+         this.progress.finishedEarly(state.depth(), share);
+      
+         return;
+      
+      }
+   
+      final double branchShare = share / count;
+      final int depth = state.depth();
+   
+      for (int i = 0; i < count; i++)
+      {
+      
+         final int path = state.candidate(i);
+      
+         state.push(path);
+      
+         if (state.depth() <= this.settings.spawnDepth() && state.uncoveredPaths() >= this.settings.minUntraveledPathsToSpawn())
+         {
+         
+            final SearchState branch = state.copy();
+         
+            branches
+               .add
+                  (
+                  this.submit
+                     (
+                        () ->
+                        {
+                        
+                           searchFrom(branch, collector, branchShare);
+                        
+                           return null;
+                        
+                        }
+                     )
+                  );
+         
+         }
+         
+         else
+         {
+         
+            searchFrom(state, collector, branchShare);
+         
+         }
+      
+         state.pop();
+      
+      }
    
-      while (!absolutePath.endsWith("HelperFunctions"))
+      for (Future<?> each : branches)
       {
       
-         absolutePath = absolutePath.getParent();
+         try
+         {
+         
+            each.get();
+         
+         }
+         
+         catch (Exception e)
+         {
+         
+            throw new RuntimeException(e);
+         
+         }
       
       }
    
-      absolutePath = Paths.get(absolutePath.toString(), "src", "main", "resources", "DarkestDungeon");
+      this.progress.finishedExploring(depth, share);
    
-      System.out.println(absolutePath);
-      var file = absolutePath
-                  .toFile();
+   }
+
+   //Best-first over (room, walked Paths) states, cheapest cost so far plus weight left to cover first. That estimate never drops
+   //by more than a step costs, so the first state popped with nothing left to cover is a cheapest route
+   //Only states that could still beat the greedy route are kept, and the states themselves live in an OffHeapFrontier
+   private Chain findBestPathsBestFirst(Node start, GameMap gameMap, long budgetBytes)
+   {
    
-      System.out.println(file);
-      var array = file
-                  .listFiles()
-                  ;
+      return findBestPathsBestFirst(start, gameMap, budgetBytes, this.progress);
    
-      if (array.length == 0)
+   }
+
+   private Chain findBestPathsBestFirst(Node start, GameMap gameMap, long budgetBytes, SearchProgress progress)
+   {
+   
+      final ContractedMap contracted = ContractedMap.of(gameMap, start);
+      final MapIndex index = new MapIndex(contracted.gameMap());
+      final Chain seed = index.greedyCoverageWalk(index.id(start));
+      final long[] coverage = new long[(index.pathCount() + Long.SIZE - 1) / Long.SIZE];
+   
+      progress.reset(seed.weight(), index.openWalkLowerBound(index.id(start), index.oddRooms()));
+   
+      try (final OffHeapFrontier frontier = new OffHeapFrontier(index.pathCount(), budgetBytes))
       {
       
-         throw new IllegalStateException("There are no files to run!");
+         final int totalWeight = index.totalWeight();
+      
+         frontier.push(frontier.add(index.id(start), 0, totalWeight, -1, OffHeapFrontier.NONE, coverage), totalWeight);
+      
+         for (long record = frontier.poll(); record != OffHeapFrontier.NONE; record = frontier.poll())
+         {
+         
+            progress.visit();
+         
+            if (!frontier.markExpanded(record))
+            {
+            
+               continue;
+            
+            }
+         
+            final int room = frontier.room(record);
+            final int cost = frontier.cost(record);
+            final int uncovered = frontier.uncovered(record);
+            final int cameAlong = frontier.path(record);
+            final long parent = frontier.parent(record);
+         
+            if (uncovered == 0)
+            {
+            
+               return contracted.expand(this.chainOf(frontier, record, index, index.id(start)));
+            
+            }
+         
+            //Back along a Path that covered nothing new on the way here is a loop that covers nothing either
+            final boolean cameAlongCovered = parent != OffHeapFrontier.NONE && frontier.uncovered(parent) == uncovered;
+         
+            frontier.coverage(record, coverage);
+         
+            for (int path : index.incidentPaths[room])
+            {
+            
+               final long bit = 1L << (path % Long.SIZE);
+               final boolean walked = (coverage[path / Long.SIZE] & bit) != 0;
+               final int nextCost = cost + index.weightOf(path);
+               final int nextUncovered = walked ? uncovered : uncovered - index.weightOf(path);
+            
+               if (nextCost + nextUncovered >= seed.weight() || walked && cameAlongCovered && path == cameAlong)
+               {
+               
+                  continue;
+               
+               }
+            
+               coverage[path / Long.SIZE] |= bit;
+            
+               frontier.push(frontier.add(index.across(path, room), nextCost, nextUncovered, path, record, coverage), nextCost + nextUncovered);
+            
+               if (!walked)
+               {
+               
+                  coverage[path / Long.SIZE] &= ~bit;
+               
+               }
+            
+            }
+         
+         }
       
       }
    
-      kickOffAll(array);
+      //Nothing beat the greedy route, so it was already a cheapest one
+      return contracted.expand(seed);
    
    }
+
+   //MeetInTheMiddleSearch on the contracted map, so every hallway is 1 Path and 1 bit of the masks
+   private Chain findBestPathsMeetingInTheMiddle(Node start, GameMap gameMap)
+   {
    
-   private void kickOffAll(final File... array)
+      final ContractedMap contracted = ContractedMap.of(gameMap, start);
+      final MapIndex index = new MapIndex(contracted.gameMap());
+   
+      return contracted.expand(new MeetInTheMiddleSearch(index, index.id(start), this.progress).solve());
+   
+   }
+
+   //A good route in about millis milliseconds however big the map is, along with how far from the best it could possibly be
+   //Runs 1 LargeNeighbourhoodSearch worker per thread of parallelism, each with its own seed
+   private BoundedChain findGoodPathsWithLargeNeighbourhoodSearch(Node start, GameMap gameMap, long millis)
    {
    
-      final List<PathFinderInputs> list =
-         Arrays
-            .asList(array)
-            .stream()
-            .filter(each -> each.isFile())
-            .filter(PathFinder::startsWithDate)
-            .map(PathFinderInputs::new)
-            //.sorted(Comparator.comparingInt(PathFinderInputs::length))
-            .peek(System.out::println)
-            .toList()
-            ;
+      final MapIndex index = new MapIndex(gameMap);
+      final LargeNeighbourhoodSearch search = new LargeNeighbourhoodSearch(index, index.id(start), System.nanoTime() + millis * 1_000_000);
+      final List<Future<Void>> workers = new ArrayList<>();
    
-      list.forEach(this::performSingleRun);
+      this.progress.reset(search.bestWeight(), search.lowerBound());
    
-      //sleep(20);
+      for (int seed = 0; seed < this.settings.parallelism(); seed++)
+      {
+      
+         final long each = seed;
+      
+         workers.add
+         (
+            this.submit
+            (
+               () ->
+               {
+               
+                  search.search(each, this.progress);
+               
+                  return null;
+               
+               }
+            )
+         );
+      
+      }
+   
+      for (Future<Void> each : workers)
+      {
+      
+         try
+         {
+         
+            each.get();
+         
+         }
+         
+         catch (Exception e)
+         {
+         
+            throw new RuntimeException(e);
+         
+         }
+      
+      }
+   
+      return new BoundedChain(index.pairedWalk(index.id(start), search.bestPartners()), search.lowerBound());
    
    }
 
-   private static void sleep(int seconds)
+   private Chain chainOf(OffHeapFrontier frontier, long record, MapIndex index, int start)
    {
    
-      try
+      final List<Integer> reversedPaths = new ArrayList<>();
+   
+      for (long each = record; frontier.parent(each) != OffHeapFrontier.NONE; each = frontier.parent(each))
       {
       
-         System.out.println("Waiting");
-         Thread.sleep(seconds * 1000);
-         System.out.println("Continuing");
+         reversedPaths.add(frontier.path(each));
       
       }
-      
-      catch (Throwable e)
+   
+      Chain chain = Chain.empty();
+      int room = start;
+   
+      for (int i = reversedPaths.size() - 1; i >= 0; i--)
       {
       
-         throw new RuntimeException(e);
+         chain = index.step(chain, room, reversedPaths.get(i));
+         room = index.across(reversedPaths.get(i), room);
       
       }
    
+      return chain;
+   
    }
 
-   private void performSingleRun(PathFinderInputs inputs)
+   private List<Chain> findCheapestPathsStartingFrom(Node start, GameMap gameMap, int k)
    {
    
-      System.out.println();
+      final RouteCollector collector = RouteCollector.cheapest(k, gameMap);
    
-      System.out.println(inputs.node() + " -- " + inputs.generateGameMap());
+      startTopKRecursion(start, gameMap, Chain.empty(), collector);
    
-      singleManualRun:
+      return collector.results();
+   
+   }
+
+   private List<Chain> findPathsWithinToleranceStartingFrom(Node start, GameMap gameMap, int tolerance)
+   {
+   
+      final RouteCollector collector = RouteCollector.withinTolerance(tolerance, gameMap);
+   
+      startTopKRecursion(start, gameMap, Chain.empty(), collector);
+   
+      return collector.results();
+   
+   }
+
+   //Unlike startRecursion, this does not stop at the first cheapest Chain, it prunes against the collector's cutoff instead
+   //Every leaf of this search is a different Chain, so the collector never sees the same route twice
+   private void startTopKRecursion(Node current, GameMap gameMap, Chain chain, RouteCollector collector)
+   {
+   
+      successCheck:
+      if (gameMap.isSubsetOf(chain))
       {
       
-         final GameMap gameMap = inputs.generateGameMap();
+         collector.offer(chain);
       
-         final Node startingNode = new Node(inputs.node());
+         return;
       
-         final double start = System.currentTimeMillis();
+      }
+   
+      failCheck:
+      if (chain.walksLastPathTooOften())
+      {
       
-         final var result = findBestPathsStartingFrom(startingNode, gameMap);
+         return;
       
-         final double finish = System.currentTimeMillis();
+      }
+   
+      final int chainWeight = chain.weight();
+      final int untraveledWeight = gameMap.amountOfUntraveledWeightLeft(chain);
+   
+      final List<Future<?>> branches = new ArrayList<>();
+   
+      findNextPathLoop:
+      for (Path each : gameMap.findPathsFromNodeOptimized(current, chain))
+      {
       
-         System.out.println("Finished in " + ((finish - start)/1000) + " seconds");
+         final int untraveledWeightAfter =
+            chain.contains(each)
+            ?
+            untraveledWeight
+            :
+            untraveledWeight - each.weight()
+            ;
       
-         prettyPrintBestChain(result);
+         recursionCall:
+         if (chainWeight + each.weight() + untraveledWeightAfter < collector.cutoff())
+         {
+         
+            branches
+               .add
+                  (
+                  fork
+                     (
+                        gameMap,
+                        chain,
+                        () ->
+                        {
+                        
+                           startTopKRecursion
+                           (
+                              each.end(),
+                              gameMap,
+                              chain.add(each),
+                              collector
+                           );
+                        
+                           return null;
+                        
+                        }
+                     )
+                  );
+         
+         }
       
-         System.out.println("FINAL = " + result.weight());
+      }
+   
+      for (Future<?> each : branches)
+      {
+      
+         try
+         {
+         
+            each.get();
+         
+         }
+         
+         catch (Exception e)
+         {
+         
+            throw new RuntimeException(e);
+         
+         }
       
       }
    
    }
 
-   private static File validateFileName(File file)
+   //Runs the branch on the pool, counting it as a task while it runs
+   private <T> Future<T> submit(Callable<T> branch)
    {
    
-      Objects.requireNonNull(file);
+      this.spawnedTasks.increment();
    
-      if (PathFinder.startsWithDate(file))
+      return
+         PARALLEL.submit
+            (
+               () ->
+               {
+               
+                  this.progress.taskStarted();
+               
+                  try
+                  {
+                  
+                     return branch.call();
+                  
+                  }
+                  
+                  finally
+                  {
+                  
+                     this.progress.taskFinished();
+                  
+                  }
+               
+               }
+            );
+   
+   }
+
+   //Hands the branch to the pool if it is shallow and big enough to be worth a task, otherwise runs it right here
+   //Either way the caller gets a Future back, so the recursion reads the same whichever way the branch went
+   private <T> Future<T> fork(GameMap gameMap, Chain parent, Callable<T> branch)
+   {
+   
+      if (parent.size() < this.settings.spawnDepth()
+            && gameMap.amountOfUntraveledPathsLeft(parent) >= this.settings.minUntraveledPathsToSpawn())
       {
       
-         return file;
+         return this.submit(branch);
       
       }
+   
+      final FutureTask<T> inline = new FutureTask<>(branch);
+   
+      inline.run();
+   
+      return inline;
+   
+   }
+
+   //Same walk as startTopKRecursion, but a branch survives as long as its lower bounds are not beaten on all 3 RouteCosts by the front
+   //Reentries can only grow, and every untraveled Path costs a step that is a reentry unless it reaches a room never visited before
+   private void startParetoRecursion(Node start, Node current, GameMap gameMap, Chain chain, ParetoFront front)
+   {
+   
+      successCheck:
+      if (gameMap.isSubsetOf(chain))
+      {
       
-      else
+         front.offer(chain, start);
+      
+         return;
+      
+      }
+   
+      failCheck:
+      if (chain.isDominated())
       {
       
-         throw new IllegalArgumentException("Filename is invalid! file = " + file);
+         return;
+      
+      }
+   
+      final List<Future<?>> branches = new ArrayList<>();
+   
+      findNextPathLoop:
+      for (Path each : gameMap.findPathsFromNodeOptimized(current, chain))
+      {
+      
+         final Chain next = chain.add(each);
+      
+         final int untraveledPaths = gameMap.amountOfUntraveledPathsLeft(next);
+         final int unvisitedNodes = gameMap.amountOfUnvisitedNodesLeft(next, start);
+      
+         final RouteCosts lowerBound =
+            new RouteCosts
+            (
+               next.weight() + gameMap.amountOfUntraveledWeightLeft(next),
+               next.countOfReentries(start) + Math.max(0, untraveledPaths - unvisitedNodes),
+               next.maxRepeatsOfAnyPath()
+            );
+      
+         recursionCall:
+         if (front.admits(lowerBound))
+         {
+         
+            branches
+               .add
+                  (
+                  fork
+                     (
+                        gameMap,
+                        chain,
+                        () ->
+                        {
+                        
+                           startParetoRecursion
+                           (
+                              start,
+                              each.end(),
+                              gameMap,
+                              next,
+                              front
+                           );
+                        
+                           return null;
+                        
+                        }
+                     )
+                  );
+         
+         }
+      
+      }
+   
+      for (Future<?> each : branches)
+      {
+      
+         try
+         {
+         
+            each.get();
+         
+         }
+         
+         catch (Exception e)
+         {
+         
+            throw new RuntimeException(e);
+         
+         }
       
       }
    
    }
 
-   private static boolean startsWithDate(File file)
+   //Covers every room instead of every Path, which is a travelling salesman walk over the shortest distances between rooms
+   //Small maps get the exact bitmask DP, bigger ones a nearest neighbour walk improved with 2-opt and room moves, bounded by the spanning tree
+   private static BoundedChain findCheapestRoomCoverageStartingFrom(Node start, GameMap gameMap)
    {
    
-      Objects.requireNonNull(file);
+      final MapIndex index = new MapIndex(gameMap);
    
-      final String[] fileNameComponents = file.getName().split("_");
+      if (index.size() <= MAX_ROOMS_FOR_EXACT_ROOM_COVERAGE)
+      {
+      
+         final Chain chain = index.chainThrough(exactRoomCoverageOrder(index, index.id(start)));
+      
+         return new BoundedChain(chain, chain.weight());
+      
+      }
    
-      return fileNameComponents[0].matches("\\d{8}");
+      final int[] order = nearestNeighbourRoomOrder(index, index.id(start));
+   
+      improveRoomOrder(index, order);
+   
+      return new BoundedChain(index.chainThrough(order), index.minimumSpanningTreeWeight());
    
    }
 
-   private static boolean startsWithDate(String file)
+   private static final int MAX_ROOMS_FOR_EXACT_ROOM_COVERAGE = 20;
+
+   //costs[mask * others + last] is the cheapest walk from start that visits exactly the rooms in mask, ending on room last
+   //The start is never in the mask, so 20 rooms need 2^19 masks rather than 2^20
+   private static int[] exactRoomCoverageOrder(MapIndex index, int start)
    {
    
-      Objects.requireNonNull(file);
+      final int[] others = new int[index.size() - 1];
    
-      final String[] fileNameComponents = file.split("_");
+      for (int id = 0, i = 0; id < index.size(); id++)
+      {
+      
+         if (id != start)
+         {
+         
+            others[i++] = id;
+         
+         }
+      
+      }
    
-      return fileNameComponents[0].matches("\\d{8}");
+      final int count = others.length;
    
-   }
-
-   private static void prettyPrintBestChain(Chain chain)
-   {
+      if (count == 0)
+      {
+      
+         return new int[] {start};
+      
+      }
    
-      final List<Path> list = chain.chain();
+      final int full = (1 << count) - 1;
+      final int[] costs = new int[(full + 1) * count];
    
-      System.out.print("\tresult weight = " + chain.weight() + "\t");
+      Arrays.fill(costs, MapIndex.UNREACHABLE);
    
-      for (int i = 0; i < list.size(); i++)
+      for (int last = 0; last < count; last++)
       {
       
-         if (i == 0)
+         costs[(1 << last) * count + last] = index.distance(start, others[last]);
+      
+      }
+   
+      for (int mask = 1; mask <= full; mask++)
+      {
+      
+         for (int last = 0; last < count; last++)
          {
          
-            System.out.print(" " + list.get(i).start().id());
+            final int cost = costs[mask * count + last];
          
-         }
+            if (cost >= MapIndex.UNREACHABLE)
+            {
+            
+               continue;
+            
+            }
          
-         else if (i != list.size() - 1)
+            for (int next = 0; next < count; next++)
+            {
+            
+               if ((mask & (1 << next)) == 0)
+               {
+               
+                  final int nextMask = mask | (1 << next);
+                  final int nextCost = cost + index.distance(others[last], others[next]);
+               
+                  if (nextCost < costs[nextMask * count + next])
+                  {
+                  
+                     costs[nextMask * count + next] = nextCost;
+                  
+                  }
+               
+               }
+            
+            }
+         
+         }
+      
+      }
+   
+      int last = 0;
+   
+      for (int each = 1; each < count; each++)
+      {
+      
+         if (costs[full * count + each] < costs[full * count + last])
          {
          
-            System.out.print(" -> " + list.get(i).start().id());
+            last = each;
          
          }
-         
-         else
+      
+      }
+   
+      //Walk the table backwards, finding a predecessor that explains each cost instead of storing one per state
+      final int[] order = new int[count + 1];
+   
+      order[0] = start;
+   
+      for (int mask = full, position = count; position > 0; position--)
+      {
+      
+         order[position] = others[last];
+      
+         final int previousMask = mask & ~(1 << last);
+      
+         if (previousMask != 0)
          {
          
-            System.out.print(" -> " + list.get(i).start().id());
-            System.out.print(" -> " + list.get(i).end().id());
+            for (int previous = 0; previous < count; previous++)
+            {
+            
+               if ((previousMask & (1 << previous)) != 0
+                     && costs[previousMask * count + previous] + index.distance(others[previous], others[last]) == costs[mask * count + last])
+               {
+               
+                  last = previous;
+               
+                  break;
+               
+               }
+            
+            }
          
          }
       
+         mask = previousMask;
+      
       }
    
-      System.out.println();
+      return order;
    
    }
 
-   private Chain findBestPathsStartingFrom(Node start, GameMap gameMap)
+   //Nearest unvisited room next, where passing through a room on the way counts as visiting it
+   //The order lists every room once, in the order the walk first reaches it
+   private static int[] nearestNeighbourRoomOrder(MapIndex index, int start)
    {
    
-      final Set<Chain> successfulChains = new CopyOnWriteArraySet<>();
+      final int[] order = new int[index.size()];
+      final boolean[] visited = new boolean[index.size()];
    
-      startRecursion(start, gameMap, Chain.empty(), successfulChains, gameMap.maxPossibleTraversalWeight());
+      order[0] = start;
+      visited[start] = true;
    
-      return
-         successfulChains
-            .stream()
-            .sorted(Chain.comparator)
-            .findFirst()
-            .orElseThrow()
-            ;
+      for (int position = 1; position < order.length;)
+      {
+      
+         final int current = order[position - 1];
+      
+         int closest = -1;
+      
+         for (int each = 0; each < order.length; each++)
+         {
+         
+            if (!visited[each] && (closest == -1 || index.distance(current, each) < index.distance(current, closest)))
+            {
+            
+               closest = each;
+            
+            }
+         
+         }
+      
+         for (int each = current; each != closest; each = index.nextHops[each][closest])
+         {
+         
+            final int passed = index.nextHops[each][closest];
+         
+            if (!visited[passed])
+            {
+            
+               visited[passed] = true;
+               order[position++] = passed;
+            
+            }
+         
+         }
+      
+      }
+   
+      return order;
    
    }
 
-   private int startRecursion(Node current, GameMap gameMap, Chain chain, Set<Chain> successfulChains, int oldMin)
+   //Reverses segments of the order, and moves single rooms elsewhere in it, for as long as that makes the walk lighter
+   //Moves are judged on the walk chainThrough would really take, skipping rooms passed on the way, rather than on the sum of distances
+   private static void improveRoomOrder(MapIndex index, int[] order)
    {
    
-      final ToIntFunction<Future<Integer>> join =  
-         eachFuture -> 
+      int cost = index.weightThrough(order);
+      boolean improved = true;
+   
+      while (improved)
+      {
+      
+         improved = false;
+      
+         for (int i = 1; i < order.length - 1; i++)
          {
-            try
+         
+            for (int j = i + 1; j < order.length; j++)
             {
-                     
-               final int result = eachFuture.get();
+            
+               reverse(order, i, j);
+            
+               final int reversedCost = index.weightThrough(order);
+            
+               if (reversedCost < cost)
+               {
                
-               return result;
-                     
+                  cost = reversedCost;
+                  improved = true;
+               
+               }
+               
+               else
+               {
+               
+                  reverse(order, i, j);
+               
+               }
+            
             }
-                     
-            catch (Exception e)
+         
+         }
+      
+         for (int from = 1; from < order.length; from++)
+         {
+         
+            for (int to = 1; to < order.length; to++)
             {
-                     
-               throw new RuntimeException(e);
-                     
+            
+               if (from == to)
+               {
+               
+                  continue;
+               
+               }
+            
+               move(order, from, to);
+            
+               final int movedCost = index.weightThrough(order);
+            
+               if (movedCost < cost)
+               {
+               
+                  cost = movedCost;
+                  improved = true;
+               
+               }
+               
+               else
+               {
+               
+                  move(order, to, from);
+               
+               }
+            
             }
-         };
+         
+         }
+      
+      }
    
-      final int chainWeight = chain.weight();
+   }
+
+   private static void reverse(int[] order, int from, int to)
+   {
    
-      successCheck:
-      if (chainWeight <= oldMin && gameMap.isSubsetOf(chain))
+      for (int left = from, right = to; left < right; left++, right--)
       {
       
-         successfulChains.add(chain);
-      
-         return chainWeight;
+         final int swap = order[left];
+         order[left] = order[right];
+         order[right] = swap;
       
       }
    
-      oldMin =
-         successfulChains
-            .stream()
-            .mapToInt(Chain::weight)
-            .min()
-            .orElse(oldMin)
-            ;
+   }
+
+   private static void move(int[] order, int from, int to)
+   {
    
-      failCheck:
-      if (chainWeight >= oldMin || !chain.shouldAddMore())
+      final int moving = order[from];
+   
+      if (from < to)
       {
       
-         return oldMin;
+         System.arraycopy(order, from + 1, order, from, to - from);
       
       }
-   
-      final List<Future<Integer>> newMins = new ArrayList<>();
-   
-      findNextPathLoop:
-      for (Path each : gameMap.findPathsFromNodeOptimized(current, chain))
+      
+      else
       {
       
-         final int currentMin =
-            newMins
-               .stream()
-               .filter(Future::isDone)
-               .mapToInt(join)
-               .min()
-               .orElse(oldMin)
-               ;
+         System.arraycopy(order, to, order, to + 1, from - to);
       
-         recursionCall:
-         if (chainWeight < currentMin - each.weight() && gameMap.amountOfUntraveledWeightLeft(chain) < currentMin - chainWeight)
-         {
-         
-            newMins
-               .add
-                  (
-                  PARALLEL
-                     .submit
-                     (
-                        () -> 
-                           startRecursion
-                           (
-                              each.end(),
-                              gameMap,
-                              chain.add(each),
-                              successfulChains,
-                              currentMin
-                           )
-                     )
-                  );
-         
-         }
+      }
+   
+      order[to] = moving;
+   
+   }
+
+   //Exploration quests end at 90% of rooms explored, so covering everything is more than they need
+   //Maps with more than 64 rooms or Paths (whichever is being covered) only get the greedy walk, bounded by the cheapest items left
+   private static BoundedChain findCheapestPartialCoverageStartingFrom(Node start, GameMap gameMap, Coverage coverage, double fraction)
+   {
+   
+      Objects.requireNonNull(coverage);
+   
+      if (!(fraction > 0 && fraction <= 1))
+      {
       
-         if (currentMin < oldMin)
-         {
-         
-            oldMin = currentMin;
-         
-         }
+         throw new IllegalArgumentException("Fraction must be above 0 and at most 1! fraction = " + fraction);
       
       }
    
-      final int newMin =
-         newMins
-            .stream()
-            .mapToInt(join)
-            .min()
-            .orElse(oldMin)
-            ;
+      final MapIndex index = new MapIndex(gameMap);
    
-      return newMin;
+      final int itemCount = coverage == Coverage.ROOMS ? index.size() : index.pathCount();
+      final int target = (int) Math.ceil(fraction * itemCount);
+   
+      return new PartialCoverageSearch(index, coverage, target).solve(index.id(start));
+   
+   }
+
+   //Only the required Paths have to be walked, say the ones with curios or the ones not cleared yet, and the rest are just for
+   //getting around. required names them by their rooms, like ab_cd. Past 32 required Paths only the seed gets built, bounded at the root
+   private static BoundedChain findCheapestRequiredCoverageStartingFrom(Node start, GameMap gameMap, String required)
+   {
+   
+      final MapIndex index = new MapIndex(gameMap);
+   
+      return new RequiredCoverageSearch(index, index.id(start), required).solve();
    
    }
 
@@ -0,0 +1,248 @@
+package DarkestDungeonPathFinderPackage;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+//Solves the same maps with 1, 2, 4, ... threads, up to every core there is, to show whether more threads actually help
+//Each thread count gets its own PathFinder, WARM_UP_RUNS solves that are thrown away, then MEASURED_RUNS that are kept
+//
+//For every map and thread count it prints 1 line
+//   <map>  threads=<n>  medianMillis=  speedup=  efficiency=  nodes=  nodesPerSecond=  busiestShare=  cpuMillisPerThread=a,b,...
+//speedup is the 1 thread median over this one, and efficiency is speedup over threads, so 1.00 is perfect scaling
+//cpuMillisPerThread is the CPU each pool worker (and the thread that asked) burned over the measured runs, busiest first
+//busiestShare is the busiest thread's part of that total, which should sit near 1/threads when work is spread evenly
+//Nodes climbing with threads means more threads are searching what a better bound would have pruned, and CPU climbing with
+//nodes flat means the threads are fighting over something instead of searching
+final class ScalingBenchmark
+{
+
+   private static final int WARM_UP_RUNS = 2;
+   private static final int MEASURED_RUNS = 5;
+
+   //Threads that burned less than this are idle workers, not part of the search
+   private static final double MIN_BUSY_MILLIS = 1;
+
+   private ScalingBenchmark()
+   {
+   
+      throw new UnsupportedOperationException();
+   
+   }
+
+   private record Measurement(int threads, double medianMillis, long nodes, double[] cpuMillisPerThread)
+   {
+   
+      double busiestShare()
+      {
+      
+         final double total = Arrays.stream(this.cpuMillisPerThread).sum();
+      
+         return
+            total == 0
+            ?
+            0
+            :
+            this.cpuMillisPerThread[0] / total
+            ;
+      
+      }
+   
+   }
+
+   //Sweeps every map in folder whose name starts with one of prefixes, or every dated map if there are no prefixes
+   public static void run(File folder, List<String> prefixes, PathFinder.Engine engine)
+   {
+   
+      Objects.requireNonNull(folder);
+      Objects.requireNonNull(prefixes);
+      Objects.requireNonNull(engine);
+   
+      final File[] maps =
+         folder
+            .listFiles
+            (
+               file ->
+                  file.getName().matches("^\\d{8}_.*\\.(png|txt)$")
+                  &&
+                  (prefixes.isEmpty() || prefixes.stream().anyMatch(file.getName()::startsWith))
+            );
+   
+      if (maps == null || maps.length == 0)
+      {
+      
+         throw new IllegalArgumentException("No maps to sweep! folder = " + folder + " prefixes = " + prefixes);
+      
+      }
+   
+      Arrays.sort(maps);
+   
+      final List<Integer> threadCounts = threadCounts(Runtime.getRuntime().availableProcessors());
+   
+      System.out.println("# ScalingBenchmark v1 engine=" + engine + " cores=" + Runtime.getRuntime().availableProcessors()
+                           + " threads=" + threadCounts);
+   
+      for (File map : maps)
+      {
+      
+         Measurement single = null;
+      
+         for (int threads : threadCounts)
+         {
+         
+            final Measurement measurement = measure(map, engine, threads);
+         
+            if (single == null)
+            {
+            
+               single = measurement;
+            
+            }
+         
+            final double speedup = single.medianMillis() / measurement.medianMillis();
+         
+            System.out.println
+            (
+               String.join
+               (
+                  "\t",
+                  map.getName(),
+                  "threads=" + threads,
+                  "medianMillis=" + "%.3f".formatted(measurement.medianMillis()),
+                  "speedup=" + "%.2f".formatted(speedup),
+                  "efficiency=" + "%.2f".formatted(speedup / threads),
+                  "nodes=" + measurement.nodes(),
+                  "nodesPerSecond=" + "%.0f".formatted(measurement.nodes() / (measurement.medianMillis() / 1000)),
+                  "busiestShare=" + "%.2f".formatted(measurement.busiestShare()),
+                  "cpuMillisPerThread="
+                     + Arrays.stream(measurement.cpuMillisPerThread()).mapToObj("%.0f"::formatted).collect(Collectors.joining(","))
+               )
+            );
+         
+         }
+      
+      }
+   
+   }
+
+   //1, 2, 4, ... below cores, then cores itself, so a machine with 6 cores still gets a run with all 6
+   private static List<Integer> threadCounts(int cores)
+   {
+   
+      final List<Integer> counts = new ArrayList<>();
+   
+      for (int threads = 1; threads < cores; threads *= 2)
+      {
+      
+         counts.add(threads);
+      
+      }
+   
+      counts.add(cores);
+   
+      return counts;
+   
+   }
+
+   private static Measurement measure(File map, PathFinder.Engine engine, int threads)
+   {
+   
+      final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+      final PathFinder.SearchSettings settings = PathFinder.SearchSettings.defaults().withParallelism(threads);
+   
+      try (final PathFinder pathFinder = new PathFinder(settings))
+      {
+      
+         int optimum = -1;
+      
+         for (int i = 0; i < WARM_UP_RUNS; i++)
+         {
+         
+            optimum = pathFinder.cheapestWeightOf(map, engine);
+         
+         }
+      
+         final double[] wallMillis = new double[MEASURED_RUNS];
+         final long[] nodes = new long[MEASURED_RUNS];
+         final Map<Long, Long> cpuBefore = searchThreadCpu(threadBean);
+      
+         for (int i = 0; i < MEASURED_RUNS; i++)
+         {
+         
+            final long wallBefore = System.nanoTime();
+         
+            final int weight = pathFinder.cheapestWeightOf(map, engine);
+         
+            wallMillis[i] = (System.nanoTime() - wallBefore) / 1_000_000.0;
+            nodes[i] = pathFinder.nodesOfLastSolve();
+         
+            if (weight != optimum)
+            {
+            
+               throw new IllegalStateException("Same map gave 2 different optimums! map = " + map.getName() + " weights = " + optimum + ", " + weight);
+            
+            }
+         
+         }
+      
+         final Map<Long, Long> cpuAfter = searchThreadCpu(threadBean);
+      
+         final double[] cpuMillisPerThread =
+            cpuAfter
+               .entrySet()
+               .stream()
+               .mapToDouble(each -> (each.getValue() - cpuBefore.getOrDefault(each.getKey(), 0L)) / 1_000_000.0)
+               .filter(millis -> millis >= MIN_BUSY_MILLIS)
+               .map(millis -> -millis)
+               .sorted()
+               .map(millis -> -millis)
+               .toArray();
+      
+         Arrays.sort(wallMillis);
+         Arrays.sort(nodes);
+      
+         return new Measurement(threads, wallMillis[MEASURED_RUNS / 2], nodes[MEASURED_RUNS / 2], cpuMillisPerThread);
+      
+      }
+   
+   }
+
+   //CPU time so far of every pool worker and of this thread, which runs the top of the search itself
+   //Virtual threads are invisible to the ThreadMXBean, so with VIRTUAL_THREADS only this thread shows up
+   private static Map<Long, Long> searchThreadCpu(ThreadMXBean threadBean)
+   {
+   
+      final Map<Long, Long> cpu = new HashMap<>();
+   
+      for (ThreadInfo each : threadBean.getThreadInfo(threadBean.getAllThreadIds()))
+      {
+      
+         if (each != null && (each.getThreadName().startsWith("ForkJoinPool") || each.getThreadId() == Thread.currentThread().threadId()))
+         {
+         
+            final long nanos = threadBean.getThreadCpuTime(each.getThreadId());
+         
+            if (nanos >= 0)
+            {
+            
+               cpu.put(each.getThreadId(), nanos);
+            
+            }
+         
+         }
+      
+      }
+   
+      return cpu;
+   
+   }
+
+}
@@ -0,0 +1,500 @@
+package DarkestDungeonPathFinderPackage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Records what startRecursion does, 1 fixed width record per expansion, route or prune, so a map that takes far too long can be
+//picked apart afterwards with report. Every thread writes into its own STRETCH_BYTES stretch of a memory-mapped file, so
+//recording is a few puts into memory, and only grabbing the next stretch touches anything shared
+//
+//The file is a header, then the stretches, then the room ids
+//   header     MAGIC (long), where the room ids start (long), 0 until the trace is closed
+//   record     kind (byte), prune reason (byte), depth (short), room (int), cost (int), thread (int), nanos since the start (long),
+//              branch (long)
+//   room ids   how many (int), then each one in modified UTF-8, numbered in order
+//A kind of 0 is the unused tail of a stretch. branch is the first BRANCH_DEPTH rooms of the route, 16 bits each with 0xFFFF for
+//none, which is how report puts work done on another thread back under the branch it was forked from
+final class SearchTrace implements AutoCloseable
+{
+
+   static final int BRANCH_DEPTH = 4;
+   static final long ROOT = -1L;
+   static final int DEFAULT_REPORT_DEPTH = 2;
+   private static final long MAGIC = 0x4444_5452_4143_4531L;
+   private static final int HEADER_BYTES = 16;
+   private static final int RECORD_BYTES = 32;
+   private static final int STRETCH_BYTES = 1 << 20;
+   private static final int NO_ROOM = 0xFFFF;
+
+   enum Kind
+   {
+   
+      EXPANDED,
+      ROUTE,
+      PRUNED,
+      ;
+   
+   }
+
+   //Why a branch got cut, in the order startRecursion checks them
+   enum Prune
+   {
+   
+      //Already weighs at least as much as the best route so far
+      OVER_BEST,
+      //Chain.isDominated
+      DOMINATED,
+      //A mirror image of a branch already searched
+      MIRRORED,
+      //The next Path would take it to the best route's weight
+      STEP_OVER_BEST,
+      //What is left to cover does not fit under the best route
+      UNCOVERED_OVER_BEST,
+      ;
+   
+   }
+
+   private final FileChannel channel;
+   private final long startNanos = System.nanoTime();
+   private final AtomicLong stretches = new AtomicLong();
+   private final AtomicInteger threads = new AtomicInteger();
+   private final Map<String, Integer> rooms = new ConcurrentHashMap<>();
+   private final AtomicInteger roomCount = new AtomicInteger();
+   private final List<MappedByteBuffer> mapped = new CopyOnWriteArrayList<>();
+   private final ThreadLocal<Writer> writer = ThreadLocal.withInitial(Writer::new);
+
+   //1 per thread, so nothing in here needs to be thread safe
+   private final class Writer
+   {
+   
+      private final int thread = SearchTrace.this.threads.getAndIncrement();
+      private MappedByteBuffer stretch;
+   
+      private void write(Kind kind, Prune reason, int depth, int room, int cost, long branch)
+      {
+      
+         if (this.stretch == null || this.stretch.remaining() < RECORD_BYTES)
+         {
+         
+            this.stretch = SearchTrace.this.nextStretch();
+         
+         }
+      
+         this.stretch
+            .put((byte) (kind.ordinal() + 1))
+            .put((byte) (reason == null ? 0 : reason.ordinal() + 1))
+            .putShort((short) Math.min(depth, Short.MAX_VALUE))
+            .putInt(room)
+            .putInt(cost)
+            .putInt(this.thread)
+            .putLong(System.nanoTime() - SearchTrace.this.startNanos)
+            .putLong(branch)
+            ;
+      
+      }
+   
+   }
+
+   SearchTrace(File file)
+   {
+   
+      Objects.requireNonNull(file);
+   
+      try
+      {
+      
+         this.channel =
+            FileChannel.open
+            (
+               file.toPath(),
+               StandardOpenOption.CREATE,
+               StandardOpenOption.TRUNCATE_EXISTING,
+               StandardOpenOption.READ,
+               StandardOpenOption.WRITE
+            );
+      
+         this.channel.write(ByteBuffer.allocate(HEADER_BYTES).putLong(MAGIC).putLong(0).flip(), 0);
+      
+      }
+   
+      catch (IOException e)
+      {
+      
+         throw new UncheckedIOException(e);
+      
+      }
+   
+   }
+
+   private MappedByteBuffer nextStretch()
+   {
+   
+      try
+      {
+      
+         final MappedByteBuffer stretch =
+            this.channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + this.stretches.getAndIncrement() * STRETCH_BYTES, STRETCH_BYTES);
+      
+         this.mapped.add(stretch);
+      
+         return stretch;
+      
+      }
+   
+      catch (IOException e)
+      {
+      
+         throw new UncheckedIOException(e);
+      
+      }
+   
+   }
+
+   //Room ids get numbered the first time they show up, so records hold an int instead of a String
+   int room(String id)
+   {
+   
+      return this.rooms.computeIfAbsent(id, key -> this.roomCount.getAndIncrement());
+   
+   }
+
+   //branch with room as the room at depth, the number of Paths walked to get there. Deeper than BRANCH_DEPTH changes nothing
+   static long branch(long branch, int depth, int room)
+   {
+   
+      if (depth < 1 || depth > BRANCH_DEPTH)
+      {
+      
+         return branch;
+      
+      }
+   
+      final int shift = (depth - 1) * 16;
+   
+      return branch & ~((long) NO_ROOM << shift) | (long) Math.min(room, NO_ROOM) << shift;
+   
+   }
+
+   void expanded(int depth, int room, int cost, long branch)
+   {
+   
+      this.writer.get().write(Kind.EXPANDED, null, depth, room, cost, branch);
+   
+   }
+
+   void route(int depth, int room, int cost, long branch)
+   {
+   
+      this.writer.get().write(Kind.ROUTE, null, depth, room, cost, branch);
+   
+   }
+
+   void pruned(Prune reason, int depth, int room, int cost, long branch)
+   {
+   
+      this.writer.get().write(Kind.PRUNED, reason, depth, room, cost, branch);
+   
+   }
+
+   //Only once the search is over, since every thread is still writing until then
+   @Override
+   public void close()
+   {
+   
+      try (this.channel)
+      {
+      
+         for (MappedByteBuffer each : this.mapped)
+         {
+         
+            each.force();
+         
+         }
+      
+         final String[] names = new String[this.roomCount.get()];
+      
+         this.rooms.forEach((id, room) -> names[room] = id);
+      
+         final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+         final DataOutputStream out = new DataOutputStream(bytes);
+      
+         out.writeInt(names.length);
+      
+         for (String name : names)
+         {
+         
+            out.writeUTF(name);
+         
+         }
+      
+         final long roomsAt = HEADER_BYTES + this.stretches.get() * STRETCH_BYTES;
+      
+         this.channel.write(ByteBuffer.wrap(bytes.toByteArray()), roomsAt);
+         this.channel.write(ByteBuffer.allocate(Long.BYTES).putLong(roomsAt).flip(), Long.BYTES);
+      
+      }
+   
+      catch (IOException e)
+      {
+      
+         throw new UncheckedIOException(e);
+      
+      }
+   
+   }
+
+   //Everything recorded under 1 branch of the search, the branches it went on to, and how long the threads spent on it
+   private static final class Branch
+   {
+   
+      private final int room;
+      private final Map<Integer, Branch> children = new TreeMap<>();
+      private final long[] pruned = new long[Prune.values().length];
+      private long expanded;
+      private long routes;
+      private int bestRoute = Integer.MAX_VALUE;
+      private long nanos;
+   
+      private Branch(int room)
+      {
+      
+         this.room = room;
+      
+      }
+   
+      private void add(Kind kind, int reason, int cost, long nanos)
+      {
+      
+         switch (kind)
+         {
+         
+            case EXPANDED -> this.expanded++;
+            case ROUTE ->
+            {
+            
+               this.routes++;
+               this.bestRoute = Math.min(this.bestRoute, cost);
+            
+            }
+            case PRUNED -> this.pruned[reason - 1]++;
+         
+         }
+      
+         this.nanos += nanos;
+      
+      }
+   
+      private String toLine(String[] names)
+      {
+      
+         final StringBuilder line =
+            new StringBuilder()
+               .append(this.room == NO_ROOM ? "?" : names[this.room])
+               .append("\texpanded=").append(this.expanded)
+               .append("\troutes=").append(this.routes)
+               .append("\tbestRoute=").append(this.bestRoute == Integer.MAX_VALUE ? "-" : "" + this.bestRoute)
+               ;
+      
+         for (Prune reason : Prune.values())
+         {
+         
+            line.append("\t").append(reason).append("=").append(this.pruned[reason.ordinal()]);
+         
+         }
+      
+         return line.append("\tmillis=").append("%.3f".formatted(this.nanos / 1_000_000.0)).toString();
+      
+      }
+   
+   }
+
+   //Prints the search as a tree of branches depth rooms deep, most time first, with every record added onto the branch it
+   //happened under. A record's time is how long its thread took since its last record, so time spent between records, say
+   //checking whether a Chain covers the map, lands on the record that came after it
+   static void report(File file, int depth, PrintStream out)
+   {
+   
+      Objects.requireNonNull(file);
+      Objects.requireNonNull(out);
+   
+      if (depth < 0 || depth > BRANCH_DEPTH)
+      {
+      
+         throw new IllegalArgumentException("Can only report 0 to " + BRANCH_DEPTH + " rooms deep! depth = " + depth);
+      
+      }
+   
+      try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+      {
+      
+         final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      
+         channel.read(header, 0);
+         header.flip();
+      
+         if (header.remaining() < HEADER_BYTES || header.getLong() != MAGIC)
+         {
+         
+            throw new IllegalArgumentException("Not a search trace! file = " + file);
+         
+         }
+      
+         final long roomsAt = header.getLong();
+      
+         if (roomsAt == 0)
+         {
+         
+            throw new IllegalArgumentException("Trace was never closed, the search must have died first! file = " + file);
+         
+         }
+      
+         final DataInputStream in = new DataInputStream(Channels.newInputStream(channel.position(roomsAt)));
+         final String[] names = new String[in.readInt()];
+      
+         for (int i = 0; i < names.length; i++)
+         {
+         
+            names[i] = in.readUTF();
+         
+         }
+      
+         final Map<Integer, Long> lastNanos = new HashMap<>();
+         final Map<Integer, long[]> perThread = new TreeMap<>();
+      
+         Branch root = null;
+         long records = 0;
+      
+         //A thread's stretches come in the order it filled them, so its records come out in the order it wrote them
+         for (long at = HEADER_BYTES; at < roomsAt; at += STRETCH_BYTES)
+         {
+         
+            final MappedByteBuffer stretch = channel.map(FileChannel.MapMode.READ_ONLY, at, STRETCH_BYTES);
+         
+            while (stretch.remaining() >= RECORD_BYTES)
+            {
+            
+               final int kind = stretch.get();
+               final int reason = stretch.get();
+               final int recordDepth = stretch.getShort();
+               final int room = stretch.getInt();
+               final int cost = stretch.getInt();
+               final int thread = stretch.getInt();
+               final long nanos = stretch.getLong();
+               final long branch = stretch.getLong();
+            
+               if (kind == 0)
+               {
+               
+                  break;
+               
+               }
+            
+               final long spent = nanos - lastNanos.getOrDefault(thread, nanos);
+            
+               lastNanos.put(thread, nanos);
+               records++;
+            
+               final long[] threadTotals = perThread.computeIfAbsent(thread, key -> new long[2]);
+            
+               threadTotals[0]++;
+               threadTotals[1] += spent;
+            
+               if (root == null)
+               {
+               
+                  root = new Branch(recordDepth == 0 ? room : NO_ROOM);
+               
+               }
+            
+               Branch node = root;
+            
+               node.add(Kind.values()[kind - 1], reason, cost, spent);
+            
+               for (int level = 1; level <= Math.min(depth, recordDepth); level++)
+               {
+               
+                  final int next = (int) (branch >>> (level - 1) * 16) & NO_ROOM;
+               
+                  if (next == NO_ROOM)
+                  {
+                  
+                     break;
+                  
+                  }
+               
+                  node = node.children.computeIfAbsent(next, Branch::new);
+               
+                  node.add(Kind.values()[kind - 1], reason, cost, spent);
+               
+               }
+            
+            }
+         
+         }
+      
+         out.println("# SearchTrace v1 records=" + records + " threads=" + perThread.size() + " rooms=" + names.length);
+      
+         perThread.forEach
+         (
+            (thread, totals) ->
+               out.println("thread=" + thread + "\trecords=" + totals[0] + "\tmillis=" + "%.3f".formatted(totals[1] / 1_000_000.0))
+         );
+      
+         if (root != null)
+         {
+         
+            print(root, names, "", out);
+         
+         }
+      
+      }
+   
+      catch (IOException e)
+      {
+      
+         throw new UncheckedIOException(e);
+      
+      }
+   
+   }
+
+   private static void print(Branch branch, String[] names, String indent, PrintStream out)
+   {
+   
+      out.println(indent + branch.toLine(names));
+   
+      final List<Branch> children = new ArrayList<>(branch.children.values());
+   
+      children.sort(Comparator.comparingLong((Branch each) -> each.nanos).reversed());
+   
+      for (Branch child : children)
+      {
+      
+         print(child, names, indent + "   ", out);
+      
+      }
+   
+   }
+
+}
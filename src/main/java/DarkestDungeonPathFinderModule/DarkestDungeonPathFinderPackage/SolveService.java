@@ -0,0 +1,399 @@
+package DarkestDungeonPathFinderPackage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+//Answers route requests over HTTP on the loopback address, so several tools can share one JVM instead of each searching on their own
+//   GET /solve?directions=ab5_bc4_cd1&start=a    ->    200    weight <weight>\nroute <rooms>\nsource <CACHED|JOINED|SOLVED>\n
+//
+//Requests are keyed by the normalized map and the start room, so the same map written in a different order is still the same request
+//A request that is already being solved waits on that solve instead of starting another, and finished answers are kept in an LRU
+//cache of cacheSize entries. At most maxConcurrentSolves solves run at once, each on 1 thread, with up to QUEUE_LIMIT more waiting
+//for their turn. Anything past that gets a 503 straight away, since waiting longer would only make the queue worse
+final class SolveService
+{
+
+   private static final int QUEUE_LIMIT = 64;
+   private static final int RETRY_AFTER_SECONDS = 5;
+   public static final int DEFAULT_CACHE_SIZE = 256;
+
+   private final PathFinder pathFinder = new PathFinder();
+   private final ThreadPoolExecutor solvers;
+   private final long budgetBytesPerSolve;
+   private final Map<Key, Answer> cache;
+   private final Map<Key, CompletableFuture<Answer>> inFlight = new ConcurrentHashMap<>();
+
+   private record Key(String directions, String start)
+   {
+   
+      Key
+      {
+      
+         Objects.requireNonNull(directions);
+         Objects.requireNonNull(start);
+      
+      }
+   
+   }
+
+   private record Answer(int weight, String route)
+   {
+   
+      String toText(String source)
+      {
+      
+         return "weight " + this.weight + "\n" + "route " + this.route + "\n" + "source " + source + "\n";
+      
+      }
+   
+   }
+
+   private SolveService(int maxConcurrentSolves, int cacheSize)
+   {
+   
+      if (maxConcurrentSolves < 1)
+      {
+      
+         throw new IllegalArgumentException("Need at least 1 solve at a time! maxConcurrentSolves = " + maxConcurrentSolves);
+      
+      }
+   
+      if (cacheSize < 0)
+      {
+      
+         throw new IllegalArgumentException("Cache size cannot be negative! cacheSize = " + cacheSize);
+      
+      }
+   
+      this.solvers =
+         new ThreadPoolExecutor
+         (
+            maxConcurrentSolves,
+            maxConcurrentSolves,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_LIMIT)
+         );
+   
+      //Every solve gets an equal slice of the frontier budget, so a full house still only spills as much as 1 solve would
+      this.budgetBytesPerSolve = PathFinder.DEFAULT_FRONTIER_BUDGET_BYTES / maxConcurrentSolves;
+   
+      this.cache =
+         new LinkedHashMap<>(16, 0.75f, true)
+         {
+         
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Answer> eldest)
+            {
+            
+               return this.size() > cacheSize;
+            
+            }
+         
+         };
+   
+   }
+
+   //Starts answering on port (0 picks a free one) and returns straight away, the server keeps the JVM alive from then on
+   public static HttpServer serve(int port, int maxConcurrentSolves, int cacheSize)
+   {
+   
+      final SolveService service = new SolveService(maxConcurrentSolves, cacheSize);
+   
+      try
+      {
+      
+         final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+      
+         //Waiting on a solve blocks the handler, which is exactly what virtual threads are cheap at
+         server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+         server.createContext("/solve", service::handle);
+         server.start();
+      
+         System.out.println("Solving on http://localhost:" + server.getAddress().getPort() + "/solve with " + maxConcurrentSolves
+                              + " solves at a time and " + cacheSize + " cached answers");
+      
+         return server;
+      
+      }
+   
+      catch (IOException e)
+      {
+      
+         service.pathFinder.close();
+         service.solvers.shutdown();
+      
+         throw new RuntimeException(e);
+      
+      }
+   
+   }
+
+   private void handle(HttpExchange exchange) throws IOException
+   {
+   
+      try (exchange)
+      {
+      
+         if (!exchange.getRequestMethod().equals("GET"))
+         {
+         
+            respond(exchange, 405, "Only GET is supported\n");
+         
+            return;
+         
+         }
+      
+         final Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+         final String directions = query.get("directions");
+         final String start = query.get("start");
+      
+         if (directions == null || start == null)
+         {
+         
+            respond(exchange, 400, "Need both directions and start\n");
+         
+            return;
+         
+         }
+      
+         final Key key;
+      
+         try
+         {
+         
+            key = new Key(PathFinder.normalizedDirectionsOf(directions), start);
+         
+         }
+      
+         catch (IllegalArgumentException e)
+         {
+         
+            respond(exchange, 400, e.getMessage() + "\n");
+         
+            return;
+         
+         }
+      
+         final Answer cached;
+      
+         synchronized (this.cache)
+         {
+         
+            cached = this.cache.get(key);
+         
+         }
+      
+         if (cached != null)
+         {
+         
+            respond(exchange, 200, cached.toText("CACHED"));
+         
+            return;
+         
+         }
+      
+         final CompletableFuture<Answer> created = new CompletableFuture<>();
+         final CompletableFuture<Answer> running = this.inFlight.putIfAbsent(key, created);
+      
+         if (running == null)
+         {
+         
+            try
+            {
+            
+               this.solvers.execute(() -> this.solve(key, created));
+            
+            }
+         
+            catch (RejectedExecutionException e)
+            {
+            
+               this.inFlight.remove(key, created);
+            
+               created.completeExceptionally(e);
+            
+               exchange.getResponseHeaders().set("Retry-After", "" + RETRY_AFTER_SECONDS);
+            
+               respond(exchange, 503, "Too many solves waiting, try again later\n");
+            
+               return;
+            
+            }
+         
+         }
+      
+         final CompletableFuture<Answer> future =
+            running == null
+            ?
+            created
+            :
+            running
+            ;
+      
+         try
+         {
+         
+            respond(exchange, 200, future.get().toText(running == null ? "SOLVED" : "JOINED"));
+         
+         }
+      
+         catch (ExecutionException e)
+         {
+         
+            final Throwable cause = e.getCause();
+         
+            if (cause instanceof RejectedExecutionException)
+            {
+            
+               exchange.getResponseHeaders().set("Retry-After", "" + RETRY_AFTER_SECONDS);
+            
+               respond(exchange, 503, "Too many solves waiting, try again later\n");
+            
+            }
+         
+            else
+            {
+            
+               respond(exchange, cause instanceof IllegalArgumentException ? 400 : 500, cause + "\n");
+            
+            }
+         
+         }
+      
+         catch (InterruptedException e)
+         {
+         
+            Thread.currentThread().interrupt();
+         
+            respond(exchange, 503, "Interrupted while waiting\n");
+         
+         }
+      
+      }
+   
+   }
+
+   //The answer goes in the cache before the request leaves inFlight, so anyone asking in between finds 1 or the other
+   //A request that missed the cache just before an answer landed would start over, so the cache gets 1 more look first
+   private void solve(Key key, CompletableFuture<Answer> future)
+   {
+   
+      try
+      {
+      
+         final Answer cached;
+      
+         synchronized (this.cache)
+         {
+         
+            cached = this.cache.get(key);
+         
+         }
+      
+         if (cached != null)
+         {
+         
+            future.complete(cached);
+         
+            return;
+         
+         }
+      
+         final String route = this.pathFinder.cheapestRouteOf(key.directions(), key.start(), this.budgetBytesPerSolve);
+         final Answer answer = new Answer(PathFinder.weightOfRoute(key.directions(), route), route);
+      
+         synchronized (this.cache)
+         {
+         
+            this.cache.put(key, answer);
+         
+         }
+      
+         future.complete(answer);
+      
+      }
+   
+      catch (RuntimeException e)
+      {
+      
+         future.completeExceptionally(e);
+      
+      }
+   
+      finally
+      {
+      
+         this.inFlight.remove(key, future);
+      
+      }
+   
+   }
+
+   private static Map<String, String> parseQuery(String rawQuery)
+   {
+   
+      final Map<String, String> query = new HashMap<>();
+   
+      if (rawQuery == null)
+      {
+      
+         return query;
+      
+      }
+   
+      for (String pair : rawQuery.split("&"))
+      {
+      
+         final int equals = pair.indexOf('=');
+      
+         if (equals > 0)
+         {
+         
+            query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+         
+         }
+      
+      }
+   
+      return query;
+   
+   }
+
+   private static void respond(HttpExchange exchange, int status, String body) throws IOException
+   {
+   
+      final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+   
+      exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+      exchange.sendResponseHeaders(status, bytes.length);
+   
+      try (final OutputStream out = exchange.getResponseBody())
+      {
+      
+         out.write(bytes);
+      
+      }
+   
+   }
+
+}